@@ -0,0 +1,70 @@
+package com.crypto.info;
+
+import com.crypto.info.benchmark.PriceFileGenerator;
+import com.crypto.info.model.Crypto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/***
+ * Full read of a generated prices file: parsing, series and rollups building
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CryptoPriceValuesBenchmark {
+
+    private static final String CRYPTO_NAME = "BENCH";
+
+    @Param({"10000", "1000000"})
+    private int rows;
+
+    private Path folder;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        folder = Files.createTempDirectory("prices");
+        PriceFileGenerator.write(folder.resolve(CRYPTO_NAME + "_values.csv"), CRYPTO_NAME, rows, 42);
+        // warm-up load of the generated file, every invocation loads it again after unload
+        CryptoPriceValues.loadAll(Collections.singletonList(CRYPTO_NAME), folder.toString());
+    }
+
+    @Setup(Level.Invocation)
+    public void unload() {
+        CryptoPriceValues.unload(CRYPTO_NAME);
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        CryptoPriceValues.unload(CRYPTO_NAME);
+        try (Stream<Path> files = Files.walk(folder)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public Crypto loadData() throws IOException {
+        return CryptoPriceValues.loadData(CRYPTO_NAME);
+    }
+}
@@ -0,0 +1,99 @@
+package com.crypto.info.benchmark;
+
+import com.crypto.info.model.PriceSeries;
+import com.crypto.info.model.PriceStorage;
+import com.crypto.info.util.PriceUtil;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/***
+ * Generates synthetic prices: random walk with one point per minute, the last point is at generation time.
+ * Files have the format of the prices folder, run with:
+ * mvn -P benchmark test-compile exec:exec@generate-prices -Dgenerator.args="folder BTC,ETH 1000000"
+ */
+public final class PriceFileGenerator {
+
+    public static final long STEP_MILLIS = 60_000L;
+    private static final long START_PRICE = PriceUtil.parsePrice("46813.21");
+    private static final long MIN_PRICE = PriceUtil.parsePrice("0.01");
+    private static final long PRICE_STEP = PriceUtil.parsePrice("0.01");
+
+    private PriceFileGenerator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: PriceFileGenerator <folder> <crypto,crypto...> <rows>");
+            System.exit(1);
+        }
+        Path folder = Paths.get(args[0]);
+        Files.createDirectories(folder);
+        int rows = Integer.parseInt(args[2]);
+        for (String cryptoName : args[1].split(",")) {
+            Path file = folder.resolve(cryptoName + "_values.csv");
+            write(file, cryptoName, rows, cryptoName.hashCode());
+            System.out.printf("%s: %d rows, %d MB%n", file, rows, Files.size(file) >> 20);
+        }
+    }
+
+    /**
+     * Writes prices file of the crypto
+     */
+    public static void write(Path file, String cryptoName, int rows, long seed) throws IOException {
+        Walk walk = new Walk(rows, seed);
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("timestamp,symbol,price\n");
+            for (int i = 0; i < rows; i++) {
+                walk.next();
+                writer.write(Long.toString(walk.timestamp));
+                writer.write(',');
+                writer.write(cryptoName);
+                writer.write(',');
+                writer.write(PriceUtil.formatPrice(walk.price));
+                writer.write('\n');
+            }
+        }
+    }
+
+    /**
+     * @return the same points as {@link #write} without going through a file
+     */
+    public static PriceSeries series(int rows, long seed) {
+        return series(rows, seed, PriceStorage.heap());
+    }
+
+    /**
+     * @param storage - storage of the series columns
+     */
+    public static PriceSeries series(int rows, long seed, PriceStorage storage) {
+        Walk walk = new Walk(rows, seed);
+        PriceSeries.Builder builder = PriceSeries.builder();
+        for (int i = 0; i < rows; i++) {
+            walk.next();
+            builder.add(walk.timestamp, walk.price);
+        }
+        return builder.build(storage);
+    }
+
+    private static final class Walk {
+
+        private final Random random;
+        private long timestamp;
+        private long price = START_PRICE;
+
+        private Walk(int rows, long seed) {
+            random = new Random(seed);
+            timestamp = System.currentTimeMillis() / STEP_MILLIS * STEP_MILLIS - rows * STEP_MILLIS;
+        }
+
+        private void next() {
+            timestamp += STEP_MILLIS;
+            price = Math.max(MIN_PRICE, price + (random.nextInt(2001) - 1000) * PRICE_STEP);
+        }
+    }
+}
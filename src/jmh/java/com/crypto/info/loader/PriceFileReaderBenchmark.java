@@ -0,0 +1,76 @@
+package com.crypto.info.loader;
+
+import com.crypto.info.benchmark.PriceFileGenerator;
+import com.crypto.info.model.PriceSeries;
+import com.crypto.info.util.PriceUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/***
+ * Parsing of a generated prices file by the memory-mapped reader against the former
+ * BufferedReader + String.split loading, allocations are compared with -prof gc:
+ * -Dbenchmark.args="PriceFileReader -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PriceFileReaderBenchmark {
+
+    @Param({"1000000", "5000000"})
+    private int rows;
+
+    private Path file;
+    private final PriceFileReader reader = new PriceFileReader();
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        file = Files.createTempFile("BENCH", "_values.csv");
+        PriceFileGenerator.write(file, "BENCH", rows, 42);
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        Files.delete(file);
+    }
+
+    @Benchmark
+    public PriceSeries priceFileReader() throws IOException {
+        PriceSeries.Builder builder = PriceSeries.builder();
+        reader.read(file, builder);
+        return builder.build();
+    }
+
+    @Benchmark
+    public PriceSeries bufferedReader() throws IOException {
+        PriceSeries.Builder builder = PriceSeries.builder();
+        try (BufferedReader lines = Files.newBufferedReader(file)) {
+            lines.readLine();
+            String line;
+            while ((line = lines.readLine()) != null) {
+                String[] values = line.split(",");
+                builder.add(Long.parseLong(values[0]), PriceUtil.parsePrice(values[2]));
+            }
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,120 @@
+package com.crypto.info.model;
+
+import com.crypto.info.benchmark.PriceFileGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/***
+ * Windows of many long series kept in heap, direct, mapped or compressed storage, with response objects allocated as requests do.
+ * GC pauses of the modes are compared with -prof gc -prof pauses, resident memory is printed after every iteration:
+ * -Dbenchmark.args="PriceStorage -prof gc -prof pauses"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-XX:MaxDirectMemorySize=4g"})
+public class PriceStorageBenchmark {
+
+    private static final int RESPONSE_POINTS = 256;
+
+    @Param({PriceStorage.HEAP, PriceStorage.DIRECT, PriceStorage.MAPPED, PriceStorage.COMPRESSED})
+    private String storage;
+
+    @Param({"32"})
+    private int cryptos;
+
+    @Param({"1000000"})
+    private int rows;
+
+    private Path folder;
+    private PriceSeries[] series;
+    private final Random random = new Random(42);
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        folder = Files.createTempDirectory("columns");
+        PriceStorage priceStorage = PriceStorage.of(storage, folder);
+        series = new PriceSeries[cryptos];
+        for (int i = 0; i < cryptos; i++) {
+            series[i] = PriceFileGenerator.series(rows, i, priceStorage);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void printMemory() throws IOException {
+        long heapUsed = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        long seriesBytes = 0;
+        for (PriceSeries prices : series) {
+            seriesBytes += prices.estimatedBytes();
+        }
+        System.out.printf("%n%s: resident %s, heap used %d MB, off-heap columns %d MB, series %d MB%n", storage,
+            residentMemory(), heapUsed >> 20, PriceStorage.offHeapBytes() >> 20, seriesBytes >> 20);
+    }
+
+    @TearDown(Level.Trial)
+    public void release() throws IOException {
+        for (PriceSeries prices : series) {
+            prices.getColumns().release();
+        }
+        try (Stream<Path> files = Files.walk(folder)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    /**
+     * Limits of a random window and response points of its start
+     */
+    @Benchmark
+    public List<CryptoData> window() {
+        PriceSeries prices = series[random.nextInt(cryptos)];
+        int from = random.nextInt(prices.size() - RESPONSE_POINTS);
+        int to = from + RESPONSE_POINTS + random.nextInt(prices.size() - from - RESPONSE_POINTS + 1);
+        List<CryptoData> response = new ArrayList<>(RESPONSE_POINTS + 2);
+        response.add(prices.toCryptoData(prices.indexOfMin(from, to), "BENCH"));
+        response.add(prices.toCryptoData(prices.indexOfMax(from, to), "BENCH"));
+        for (int i = from; i < from + RESPONSE_POINTS; i++) {
+            response.add(prices.toCryptoData(i, "BENCH"));
+        }
+        return response;
+    }
+
+    /**
+     * @return VmRSS of the process on Linux
+     */
+    private static String residentMemory() throws IOException {
+        Path status = Paths.get("/proc/self/status");
+        if (!Files.exists(status)) {
+            return "n/a";
+        }
+        try (Stream<String> lines = Files.lines(status)) {
+            return lines.filter(line -> line.startsWith("VmRSS:"))
+                .map(line -> line.substring("VmRSS:".length()).trim())
+                .findFirst().orElse("n/a");
+        }
+    }
+}
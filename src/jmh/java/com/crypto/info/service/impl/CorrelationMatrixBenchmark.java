@@ -0,0 +1,69 @@
+package com.crypto.info.service.impl;
+
+import com.crypto.info.benchmark.PriceFileGenerator;
+import com.crypto.info.model.PriceRollup;
+import com.crypto.info.model.RollupResolution;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/***
+ * Hourly correlation matrix of many generated cryptos on one thread and on all processors
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CorrelationMatrixBenchmark {
+
+    @Param({"50", "300"})
+    private int cryptos;
+
+    @Param({"1", "0"})
+    private int parallelism;
+
+    @Param({"200000"})
+    private int rows;
+
+    private List<PriceRollup> rollups;
+    private ParallelFanOut fanOut;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        rollups = new ArrayList<>(cryptos);
+        for (int i = 0; i < cryptos; i++) {
+            rollups.add(PriceRollup.build(PriceFileGenerator.series(rows, i), RollupResolution.HOUR, ZoneOffset.UTC));
+        }
+        fanOut = new ParallelFanOut(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(), "bench");
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        fanOut.close();
+    }
+
+    @Benchmark
+    public List<List<Double>> correlations() {
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
+        long[] grid = CorrelationMatrix.grid(rollups, Long.MIN_VALUE, Long.MAX_VALUE);
+        List<double[]> returns = fanOut.map(rollups, rollup -> CorrelationMatrix.standardizedReturns(rollup, grid), deadline);
+        return CorrelationMatrix.correlations(returns, fanOut, deadline);
+    }
+}
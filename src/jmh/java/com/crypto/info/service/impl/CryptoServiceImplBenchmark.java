@@ -0,0 +1,63 @@
+package com.crypto.info.service.impl;
+
+import com.crypto.info.benchmark.PriceFileGenerator;
+import com.crypto.info.model.Crypto;
+import com.crypto.info.model.CryptoLimits;
+import com.crypto.info.model.SeriesWindow;
+import com.crypto.info.util.DateUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/***
+ * Limits and normalized range of a generated series, computed without result cache
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CryptoServiceImplBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    private int rows;
+
+    private Crypto crypto;
+    private SeriesWindow all;
+    private SeriesWindow month;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        crypto = new Crypto("BENCH");
+        crypto.setSeries(PriceFileGenerator.series(rows, 42));
+        all = SeriesWindow.of(crypto.getSeries());
+        month = DateUtil.filterDataByTimePeriod(crypto.getSeries(), "0", "1", "0");
+    }
+
+    @Benchmark
+    public CryptoLimits createLimits() {
+        return CryptoServiceImpl.createLimits(crypto, all);
+    }
+
+    @Benchmark
+    public CryptoLimits createLimitsForMonth() {
+        return CryptoServiceImpl.createLimits(crypto, month);
+    }
+
+    @Benchmark
+    public long calculateNormalizedRange() {
+        return CryptoServiceImpl.calculateNormalizedRange(all);
+    }
+}
@@ -0,0 +1,59 @@
+package com.crypto.info.util;
+
+import com.crypto.info.benchmark.PriceFileGenerator;
+import com.crypto.info.model.PriceSeries;
+import com.crypto.info.model.SeriesWindow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/***
+ * Time window filtering of a generated series
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DateUtilBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    private int rows;
+
+    private PriceSeries series;
+    private String day;
+    private String month;
+    private String year;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        series = PriceFileGenerator.series(rows, 42);
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        day = String.valueOf(yesterday.getDayOfMonth());
+        month = String.valueOf(yesterday.getMonthValue());
+        year = String.valueOf(yesterday.getYear());
+    }
+
+    @Benchmark
+    public SeriesWindow filterDataByTimePeriod() {
+        return DateUtil.filterDataByTimePeriod(series, "0", "1", "0");
+    }
+
+    @Benchmark
+    public SeriesWindow filterDataBySpecificDay() {
+        return DateUtil.filterDataBySpecificDay(series, day, month, year);
+    }
+}
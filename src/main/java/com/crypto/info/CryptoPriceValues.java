@@ -1,112 +1,754 @@
 package com.crypto.info;
 
+import com.crypto.info.cache.TinyLfuCache;
+import com.crypto.info.loader.PriceFileAppender;
+import com.crypto.info.loader.PriceFileReader;
+import com.crypto.info.loader.PriceFilesWatcher;
+import com.crypto.info.loader.PriceSnapshot;
+import com.crypto.info.metrics.PriceMetrics;
 import com.crypto.info.model.Crypto;
 import com.crypto.info.model.CryptoData;
+import com.crypto.info.model.CryptoIngestResult;
+import com.crypto.info.model.PriceFileState;
+import com.crypto.info.model.PriceRollup;
+import com.crypto.info.model.PriceSeries;
+import com.crypto.info.model.PriceStatistics;
+import com.crypto.info.model.PriceStorage;
+import com.crypto.info.model.RollupResolution;
+import com.crypto.info.util.PriceUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributes;
-import java.nio.file.attribute.FileTime;
 import java.time.Instant;
-import java.util.ArrayList;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 /***
  * Class reads data from .csv files and collects it to the map.
- * If crypto data file is updated, requested crypto updated too.
+ * If crypto data file is updated, crypto is updated in background:
+ * appended lines are added to the loaded series, rewritten file is read again.
+ * Loaded series are saved to binary snapshots if snapshot folder is set, the first load after restart
+ * reads the snapshot and parses only the lines appended to the file after it.
+ * Requests only read the last published {@link Crypto}, which is never changed after publishing.
+ * Loaded cryptos are kept in a cache limited by their estimated size, evicted crypto is loaded again on request.
+ * Ingested ticks are added to the loaded series at once and appended to the prices file in batches,
+ * loads and writes of a crypto hold its lock, so a load never reads lines which are already in the series.
+ * Listeners are told about every new version, see {@link #addPublishListener}.
  */
 public class CryptoPriceValues {
 
     private static final Logger LOG = LoggerFactory.getLogger(CryptoPriceValues.class);
 
-    private static String pricesFolder;
+    /**
+     * Ingested tick not newer than the newest point is rejected
+     */
+    public static final String INGEST_REJECT = "reject";
+    /**
+     * Ingested tick older than the newest point is merged into the series, tick of an existing timestamp is rejected
+     */
+    public static final String INGEST_MERGE = "merge";
+
+    private static volatile String pricesFolder;
+    private static volatile long loadTimeoutMillis = 30_000;
+    private static volatile ZoneId rollupZone = ZoneId.systemDefault();
+    private static volatile PriceSnapshot snapshots;
+    private static volatile PriceStorage storage = PriceStorage.heap();
+    private static volatile PriceFileAppender appender;
+    private static volatile String outOfOrderPolicy = INGEST_REJECT;
     private static final String CRYPTO_FILE_NAME_SUFFIX = "_values.csv";
-    private static final String COMA_DELIMITER = ",";
-    private static final Lock lock = new ReentrantLock();
+    private static final String CRYPTO_FILE_HEADER = "timestamp,symbol,price\n";
+    private static final PriceFileReader READER = new PriceFileReader();
+    private static final ExecutorService LOADER = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+        new ThreadFactory() {
+            private final AtomicInteger counter = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "price-loader-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
 
-    private static ConcurrentMap<String, Crypto> cryptoMap = new ConcurrentHashMap<>();
+    /**
+     * Source of data versions, shared by all cryptos so a version is never reused
+     */
+    private static final AtomicLong VERSIONS = new AtomicLong();
 
+    private static volatile TinyLfuCache<Crypto> cryptoCache = newCache(0, Collections.emptySet(), 16);
+    /**
+     * Loads in progress, at most one per crypto
+     */
+    private static final ConcurrentMap<String, CompletableFuture<Crypto>> loading = new ConcurrentHashMap<>();
+    /**
+     * Loaded part of the prices file kept in the snapshot of the crypto
+     */
+    private static final ConcurrentMap<String, Long> snapshotOffsets = new ConcurrentHashMap<>();
+    /**
+     * Locks held by loads, ingests and writes of ingested lines of a crypto
+     */
+    private static final ConcurrentMap<String, Object> locks = new ConcurrentHashMap<>();
+    /**
+     * Called with every new version of a crypto
+     */
+    private static final List<Consumer<Crypto>> publishListeners = new CopyOnWriteArrayList<>();
+    private static PriceFilesWatcher watcher;
+
+    /**
+     * Returns the last loaded data, file is read only if the crypto was never loaded.
+     * Concurrent requests of not loaded crypto wait for the same load, not longer than load timeout.
+     * Changes of the files are picked up in background, see {@link #startRefresh}.
+     */
     public static Optional<Crypto> getCryptoData(String cryptoName, String folderName) {
+        pricesFolder = folderName;
+        Crypto crypto = cryptoCache.get(cryptoName);
+        if (Objects.nonNull(crypto)) {
+            return Optional.of(crypto);
+        }
         try {
-            pricesFolder = folderName;
-            return Optional.ofNullable(readPricesFiles(cryptoName));
-        } catch (IOException | NullPointerException | InterruptedException e) {
+            return Optional.ofNullable(load(cryptoName).get(loadTimeoutMillis, TimeUnit.MILLISECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            LOG.error(e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            LOG.warn("{} crypto is not loaded in {} ms", cryptoName, loadTimeoutMillis);
+            PriceMetrics.recordLoadTimeout(cryptoName);
+        }
+        return Optional.ofNullable(cryptoCache.peek(cryptoName));
+    }
+
+    /**
+     * Returns the last loaded data or the load of not loaded crypto, the caller decides how long to wait
+     */
+    public static CompletableFuture<Crypto> getCryptoDataAsync(String cryptoName, String folderName) {
+        pricesFolder = folderName;
+        Crypto crypto = cryptoCache.get(cryptoName);
+        return Objects.nonNull(crypto) ? CompletableFuture.completedFuture(crypto) : load(cryptoName);
+    }
+
+    /**
+     * @return the last loaded data, empty if the crypto was never loaded. File is never read
+     */
+    public static Optional<Crypto> getLoadedCryptoData(String cryptoName) {
+        return Optional.ofNullable(cryptoCache.peek(cryptoName));
+    }
+
+    /**
+     * Loads all cryptos in parallel and waits for them
+     */
+    public static void loadAll(Collection<String> cryptos, String folderName) {
+        pricesFolder = folderName;
+        List<CompletableFuture<Crypto>> loads = cryptos.stream()
+            .map(CryptoPriceValues::load)
+            .collect(Collectors.toList());
+        for (CompletableFuture<Crypto> load : loads) {
+            try {
+                load.join();
+            } catch (CompletionException e) {
+                LOG.error(e.getCause().getMessage(), e.getCause());
+            }
+        }
+    }
+
+    public static void setLoadTimeout(long timeoutMillis) {
+        loadTimeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * @param zone - time zone of the hour, day and week rollups built on load
+     */
+    public static void setRollupZone(ZoneId zone) {
+        rollupZone = zone;
+    }
+
+    /**
+     * Limits memory of the loaded cryptos, should be set before the first load.
+     * Cryptos requested less often are evicted first and loaded again on the next request.
+     *
+     * @param maxBytes        - max estimated size of the loaded series and rollups, 0 for no limit
+     * @param pinned          - cryptos which are never evicted
+     * @param expectedCryptos - number of cryptos which may be requested
+     */
+    public static synchronized void setCacheLimit(long maxBytes, Collection<String> pinned, int expectedCryptos) {
+        TinyLfuCache<Crypto> cache = newCache(maxBytes, new HashSet<>(pinned), expectedCryptos);
+        cryptoCache.values().forEach(crypto -> cache.put(crypto.getName(), crypto));
+        cryptoCache = cache;
+        PriceMetrics.bindCache(cache);
+    }
+
+    /**
+     * @param priceStorage - storage of the columns of series loaded after the call: heap, direct or mapped buffers
+     */
+    public static void setStorage(PriceStorage priceStorage) {
+        storage = priceStorage;
+        PriceMetrics.registerOffHeapBytes();
+        LOG.info("Price series are stored in {}", priceStorage);
+    }
+
+    /**
+     * @param folderName - folder of binary snapshots of the loaded series, null or empty disables snapshots
+     */
+    public static void setSnapshotFolder(String folderName) {
+        snapshots = Objects.isNull(folderName) || folderName.isEmpty() ? null : new PriceSnapshot(Paths.get(folderName));
+    }
+
+    /**
+     * Writes snapshots of the cryptos loaded beyond their last snapshot, e.g. before shutdown
+     */
+    public static void writeSnapshots() {
+        cryptoCache.values().forEach(CryptoPriceValues::writeSnapshot);
+    }
+
+    /**
+     * @param listener - called with every new version of a loaded or ingested crypto, should return quickly
+     */
+    public static void addPublishListener(Consumer<Crypto> listener) {
+        publishListeners.add(listener);
+    }
+
+    public static void removePublishListener(Consumer<Crypto> listener) {
+        publishListeners.remove(listener);
+    }
+
+    /**
+     * Enables ingest of ticks, see {@link #ingest}
+     *
+     * @param sync           - sync policy of written lines, see {@link PriceFileAppender}
+     * @param intervalMillis - interval of batched writes to the prices files
+     * @param batchBytes     - queued bytes of a crypto which are written before the interval ends
+     * @param outOfOrder     - {@link #INGEST_REJECT} or {@link #INGEST_MERGE}
+     */
+    public static synchronized void setIngest(String sync, long intervalMillis, int batchBytes, String outOfOrder) {
+        if (!INGEST_REJECT.equals(outOfOrder) && !INGEST_MERGE.equals(outOfOrder)) {
+            throw new IllegalArgumentException("Unknown policy of out of order ticks: " + outOfOrder);
+        }
+        stopIngest();
+        outOfOrderPolicy = outOfOrder;
+        appender = new PriceFileAppender(CryptoPriceValues::priceFile, CryptoPriceValues::lock, CryptoPriceValues::written,
+            sync, intervalMillis, batchBytes);
+    }
+
+    /**
+     * Disables ingest and writes ingested lines which are still queued, e.g. before shutdown
+     */
+    public static synchronized void stopIngest() {
+        if (Objects.nonNull(appender)) {
+            appender.close();
+            appender = null;
+        }
+    }
+
+    /**
+     * Adds ticks to the series of the crypto and queues them to the end of its prices file.
+     * Accepted ticks are seen by the next request, the file is written in batches, see {@link PriceFileAppender}.
+     * Tick not newer than the newest point is rejected, unless it is merged by {@link #INGEST_MERGE} policy.
+     * Crypto which is not loaded is loaded first, missing prices file is created.
+     *
+     * @param ticks - ticks in order of arrival, their names are ignored
+     * @throws IllegalArgumentException if a tick has no date, or its price is not a positive number in range
+     * @throws IllegalStateException    if ingest is disabled, or with sync policy "always" if the ticks
+     *                                  are not written in load timeout. Accepted ticks stay in the series then
+     */
+    public static CryptoIngestResult ingest(String cryptoName, List<CryptoData> ticks) throws IOException {
+        PriceFileAppender fileAppender = appender;
+        if (Objects.isNull(fileAppender)) {
+            throw new IllegalStateException("Ingest of prices is disabled");
+        }
+        long[] timestamps = new long[ticks.size()];
+        long[] prices = new long[ticks.size()];
+        for (int i = 0; i < ticks.size(); i++) {
+            CryptoData tick = ticks.get(i);
+            if (Objects.isNull(tick.getDate()) || Objects.isNull(tick.getPrice())) {
+                throw new IllegalArgumentException("Tick of " + cryptoName + " has no date or price");
+            }
+            timestamps[i] = tick.getDate().toEpochMilli();
+            try {
+                prices[i] = PriceUtil.parsePrice(tick.getPrice());
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Price of " + cryptoName + " is out of range: " + tick.getPrice(), e);
+            }
+            if (prices[i] <= 0) {
+                throw new IllegalArgumentException("Price of " + cryptoName + " is not positive: " + tick.getPrice());
+            }
+        }
+        boolean merge = INGEST_MERGE.equals(outOfOrderPolicy);
+        CompletableFuture<Void> written = CompletableFuture.completedFuture(null);
+        int accepted = 0;
+        synchronized (lock(cryptoName)) {
+            Crypto current = cryptoCache.peek(cryptoName);
+            if (Objects.isNull(current)) {
+                createPriceFile(cryptoName);
+                current = loadData(cryptoName);
+            }
+            PriceSeries series = current.getSeries();
+            PriceSeries.Builder tail = PriceSeries.builder();
+            Set<Long> acceptedTimestamps = new HashSet<>();
+            StringBuilder lines = new StringBuilder();
+            long newest = series.lastTimestamp();
+            for (int i = 0; i < timestamps.length; i++) {
+                long timestamp = timestamps[i];
+                if (timestamp <= newest && (!merge || contains(series, timestamp) || acceptedTimestamps.contains(timestamp))) {
+                    continue;
+                }
+                if (merge) {
+                    acceptedTimestamps.add(timestamp);
+                }
+                newest = Math.max(newest, timestamp);
+                tail.add(timestamp, prices[i]);
+                lines.append(timestamp).append(',').append(cryptoName).append(',')
+                    .append(PriceUtil.formatPrice(prices[i])).append('\n');
+                accepted++;
+            }
+            if (accepted > 0) {
+                PriceSeries tailSeries = tail.build(series.isEmpty() ? storage : PriceStorage.heap());
+                Crypto crypto = new Crypto(cryptoName);
+                crypto.setLastUploadFileDate(current.getLastUploadFileDate());
+                crypto.setFileState(current.getFileState());
+                crypto.setSeries(series.append(tailSeries));
+                appendRollups(current, crypto, tailSeries.timestamp(0) < series.lastTimestamp());
+                crypto.setUnwritten(true);
+                crypto.setVersion(VERSIONS.incrementAndGet());
+                written = fileAppender.append(cryptoName, lines.toString().getBytes(StandardCharsets.US_ASCII));
+                cryptoCache.put(cryptoName, crypto);
+                if (series.getColumns() != crypto.getSeries().getColumns()) {
+                    series.getColumns().release();
+                }
+                published(crypto);
+            }
+        }
+        PriceMetrics.recordIngest(cryptoName, accepted, ticks.size() - accepted);
+        if (fileAppender.isSynchronous()) {
+            awaitWritten(cryptoName, written);
+        }
+        return new CryptoIngestResult(cryptoName, accepted, ticks.size() - accepted);
+    }
+
+    /**
+     * Starts background refresh of the loaded cryptos when their files are changed
+     *
+     * @param folderName         - prices folder
+     * @param cryptos            - cryptos to refresh
+     * @param mode               - "watch" to use file system notifications or "poll" to check files periodically
+     * @param pollIntervalMillis - interval of polling, also used as fallback if folder can't be watched
+     */
+    public static synchronized void startRefresh(String folderName, Collection<String> cryptos, String mode, long pollIntervalMillis) {
+        stopRefresh();
+        pricesFolder = folderName;
+        watcher = new PriceFilesWatcher(Paths.get(folderName), CRYPTO_FILE_NAME_SUFFIX, cryptos,
+            CryptoPriceValues::refresh, pollIntervalMillis);
+        watcher.start(mode);
+    }
+
+    public static synchronized void stopRefresh() {
+        if (Objects.nonNull(watcher)) {
+            watcher.close();
+            watcher = null;
+        }
+    }
+
+    /**
+     * Forgets loaded data of the crypto, next load reads the whole file
+     */
+    static void unload(String cryptoName) {
+        Crypto crypto = cryptoCache.remove(cryptoName);
+        if (Objects.nonNull(crypto)) {
+            crypto.getSeries().getColumns().release();
+        }
+    }
+
+    private static void published(Crypto crypto) {
+        for (Consumer<Crypto> listener : publishListeners) {
+            try {
+                listener.accept(crypto);
+            } catch (RuntimeException e) {
+                LOG.error("Listener of published {} crypto failed: {}", crypto.getName(), e.getMessage(), e);
+            }
+        }
+    }
+
+    private static Object lock(String cryptoName) {
+        return locks.computeIfAbsent(cryptoName, name -> new Object());
+    }
+
+    private static Path priceFile(String cryptoName) {
+        return Paths.get(pricesFolder, cryptoName + CRYPTO_FILE_NAME_SUFFIX);
+    }
+
+    /**
+     * Creates prices file with the header only, existing file is kept
+     */
+    private static void createPriceFile(String cryptoName) throws IOException {
+        Path file = priceFile(cryptoName);
+        if (Files.notExists(file)) {
+            try {
+                Files.write(file, CRYPTO_FILE_HEADER.getBytes(StandardCharsets.US_ASCII), StandardOpenOption.CREATE_NEW);
+                LOG.info("Prices file {} is created for ingested ticks", file);
+            } catch (FileAlreadyExistsException e) {
+                LOG.debug("Prices file {} is already created", file);
+            }
+        }
+    }
+
+    /**
+     * @return true if the series has a point of the timestamp
+     */
+    private static boolean contains(PriceSeries series, long timestamp) {
+        int index = series.lowerBound(timestamp);
+        return index < series.size() && series.timestamp(index) == timestamp;
+    }
+
+    private static void awaitWritten(String cryptoName, CompletableFuture<Void> written) {
+        try {
+            written.get(loadTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while ticks of " + cryptoName + " are written", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Ticks of " + cryptoName + " are not written: " + e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Ticks of " + cryptoName + " are not written in " + loadTimeoutMillis + " ms", e);
+        }
+    }
+
+    /**
+     * Ingested lines are written to the prices file, so the published crypto is republished with the new file state.
+     * Called with the crypto lock held; crypto loaded from the file after the ingest already has the lines.
+     */
+    private static void written(String cryptoName, Path file, long from, long size) throws IOException {
+        Crypto crypto = cryptoCache.peek(cryptoName);
+        if (Objects.isNull(crypto) || !crypto.isUnwritten() || Objects.isNull(crypto.getFileState())
+            || crypto.getFileState().getOffset() != from) {
+            return;
+        }
+        Crypto written = new Crypto(cryptoName);
+        Instant now = Instant.now();
+        Instant modified = Files.getLastModifiedTime(file).toInstant();
+        // clock may be coarser than the modification time of the file, which is then after the current time
+        written.setLastUploadFileDate(now.isAfter(modified) ? now : modified.plusNanos(1));
+        written.setSeries(crypto.getSeries());
+        written.setFileState(READER.fileState(file, size, crypto.getSeries().lastTimestamp()));
+        written.setRollups(crypto.getRollups());
+        written.setStatistics(crypto.getStatistics());
+        written.setVersion(crypto.getVersion());
+        cryptoCache.put(cryptoName, written);
+    }
+
+    private static TinyLfuCache<Crypto> newCache(long maxBytes, Set<String> pinned, int expectedCryptos) {
+        return new TinyLfuCache<>("cryptos", maxBytes > 0 ? maxBytes : Long.MAX_VALUE, Crypto::estimatedBytes,
+            PriceStorage::releasedDirectBytes, pinned, expectedCryptos, CryptoPriceValues::evicted);
+    }
+
+    /**
+     * Evicted crypto is saved to snapshot if it has points loaded after the last snapshot, then its columns are released
+     */
+    private static void evicted(String cryptoName, Crypto crypto) {
+        LOG.info("{} crypto is evicted from memory, it is loaded again on the next request", cryptoName);
+        if (Objects.nonNull(snapshots)) {
+            LOADER.execute(() -> {
+                writeSnapshot(crypto);
+                crypto.getSeries().getColumns().release();
+            });
+        } else {
+            crypto.getSeries().getColumns().release();
+        }
+    }
+
+    /**
+     * Starts loading of the crypto or joins the load which is already in progress
+     */
+    private static CompletableFuture<Crypto> load(String cryptoName) {
+        CompletableFuture<Crypto> inProgress = loading.get(cryptoName);
+        if (Objects.isNull(inProgress)) {
+            CompletableFuture<Crypto> future = new CompletableFuture<>();
+            inProgress = loading.putIfAbsent(cryptoName, future);
+            if (Objects.isNull(inProgress)) {
+                return start(cryptoName, future);
+            }
+        }
+        PriceMetrics.recordJoinedLoad(cryptoName);
+        return inProgress;
+    }
+
+    /**
+     * Runs registered load on the loader pool and unregisters it before it is completed,
+     * so a caller which waited for the load and then finds the file changed starts a new load
+     */
+    private static CompletableFuture<Crypto> start(String cryptoName, CompletableFuture<Crypto> future) {
+        try {
+            LOADER.execute(() -> {
+                Crypto crypto;
+                try {
+                    crypto = loadData(cryptoName);
+                } catch (IOException | RuntimeException e) {
+                    loading.remove(cryptoName, future);
+                    future.completeExceptionally(e);
+                    return;
+                }
+                loading.remove(cryptoName, future);
+                future.complete(crypto);
+            });
+        } catch (RejectedExecutionException e) {
+            loading.remove(cryptoName, future);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Reloads crypto if its file is changed since the last load. Called on background thread.
+     * Load which is already in progress may have missed the change, so the file is checked after it.
+     * Crypto which is not loaded or is evicted is skipped, it is read on the next request.
+     */
+    private static void refresh(String cryptoName) {
+        try {
+            CompletableFuture<Crypto> inProgress = loading.get(cryptoName);
+            if (Objects.nonNull(inProgress)) {
+                inProgress.exceptionally(e -> null).join();
+            }
+            if (Objects.isNull(cryptoCache.peek(cryptoName))) {
+                return;
+            }
+            if (isDataUpToDate(cryptoName)) {
+                PriceMetrics.recordRefresh(cryptoName, false);
+                return;
+            }
+            PriceMetrics.recordRefresh(cryptoName, true);
+            load(cryptoName).join();
+        } catch (IOException e) {
             LOG.error(e.getMessage(), e);
+        } catch (CompletionException e) {
+            LOG.error(e.getCause().getMessage(), e.getCause());
         }
-        return Optional.empty();
     }
 
-    private static Crypto readPricesFiles(String cryptoName) throws IOException, InterruptedException {
-        if (!cryptoMap.containsKey(cryptoName)) {
-            if (lock.tryLock()) {
-                return loadData(cryptoName);
+    /**
+     * Reads the file of the crypto and publishes the result, package-private for benchmarks.
+     * Ingested lines which are still queued are written first.
+     */
+    static Crypto loadData(String cryptoName) throws IOException {
+        synchronized (lock(cryptoName)) {
+            PriceFileAppender fileAppender = appender;
+            if (Objects.nonNull(fileAppender)) {
+                fileAppender.flush(cryptoName);
             }
+            return loadFile(cryptoName);
+        }
+    }
+
+    private static Crypto loadFile(String cryptoName) throws IOException {
+        LOG.info("Loading data for {} crypto", cryptoName);
+        long start = System.nanoTime();
+        Path file = priceFile(cryptoName);
+        Crypto loaded = cryptoCache.peek(cryptoName);
+        Crypto crypto;
+        String loadType;
+        try {
+            if (Objects.nonNull(loaded) && Objects.nonNull(loaded.getFileState())
+                && READER.isAppendedTo(file, loaded.getFileState())) {
+                loadType = PriceMetrics.LOAD_APPEND;
+                crypto = appendData(loaded, file);
+            } else {
+                Crypto fromSnapshot = readSnapshot(cryptoName, file);
+                if (Objects.nonNull(fromSnapshot)) {
+                    loadType = PriceMetrics.LOAD_SNAPSHOT;
+                    crypto = appendData(fromSnapshot, file);
+                } else {
+                    loadType = PriceMetrics.LOAD_FULL;
+                    crypto = readData(cryptoName, file);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            PriceMetrics.recordLoadFailure(cryptoName);
+            throw e;
+        }
+        crypto.setVersion(VERSIONS.incrementAndGet());
+        cryptoCache.put(cryptoName, crypto);
+        if (Objects.nonNull(loaded) && loaded.getSeries().getColumns() != crypto.getSeries().getColumns()) {
+            loaded.getSeries().getColumns().release();
+        }
+        published(crypto);
+        PriceMetrics.recordLoad(cryptoName, loadType, System.nanoTime() - start);
+        PriceMetrics.registerSeriesSize(cryptoName, cryptoName, name -> seriesSize(cryptoCache.peek(name)));
+        LOG.info("{} crypto is loaded, version {}", cryptoName, crypto.getVersion());
+        if (Objects.nonNull(snapshots) && !PriceMetrics.LOAD_APPEND.equals(loadType)) {
+            LOADER.execute(() -> writeSnapshot(crypto));
+        }
+        return crypto;
+    }
+
+    /**
+     * Reads snapshot of the crypto if the prices file still starts with the snapshot part.
+     * File of the same size is also required to have the same modification time.
+     *
+     * @return crypto with the series and file state of the snapshot and without rollups,
+     * null if there is no valid snapshot and the whole file has to be read
+     */
+    private static Crypto readSnapshot(String cryptoName, Path file) {
+        PriceSnapshot snapshot = snapshots;
+        if (Objects.isNull(snapshot)) {
+            return null;
+        }
+        try {
+            Optional<PriceSnapshot.Content> content = snapshot.read(cryptoName, storage);
+            if (content.isEmpty()) {
+                return null;
+            }
+            PriceFileState state = content.get().getFileState();
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            if ((attributes.size() == state.getOffset()
+                && attributes.lastModifiedTime().toMillis() != content.get().getSourceModified())
+                || !READER.isAppendedTo(file, state)) {
+                LOG.info("Snapshot of {} crypto is stale, prices file will be read", cryptoName);
+                content.get().getSeries().getColumns().release();
+                return null;
+            }
+            Crypto crypto = new Crypto(cryptoName);
+            crypto.setSeries(content.get().getSeries());
+            crypto.setFileState(state);
+            snapshotOffsets.put(cryptoName, state.getOffset());
+            LOG.debug("Snapshot of {} crypto is read, {} points", cryptoName, crypto.getSeries().size());
+            return crypto;
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Snapshot of {} crypto is not read: {}", cryptoName, e.getMessage());
             return null;
         }
-        if (isDataUpToDate(cryptoName)) {
-            return cryptoMap.get(cryptoName);
+    }
+
+    /**
+     * Writes snapshot of the crypto unless the snapshot already has all its points
+     */
+    private static void writeSnapshot(Crypto crypto) {
+        PriceSnapshot snapshot = snapshots;
+        PriceFileState state = crypto.getFileState();
+        if (Objects.isNull(snapshot) || Objects.isNull(state) || crypto.isUnwritten()
+            || Objects.equals(snapshotOffsets.get(crypto.getName()), state.getOffset())) {
+            return;
         }
-        if (lock.tryLock()) {
-            return loadData(cryptoName);
+        Path file = priceFile(crypto.getName());
+        try {
+            long modified = Files.getLastModifiedTime(file).toMillis();
+            snapshot.write(crypto.getName(), crypto.getSeries(), state, modified);
+            snapshotOffsets.put(crypto.getName(), state.getOffset());
+        } catch (IOException e) {
+            LOG.warn("Snapshot of {} crypto is not written: {}", crypto.getName(), e.getMessage());
         }
-        return cryptoMap.get(cryptoName);
     }
 
-    private static Crypto loadData(String cryptoName) throws IOException {
-        LOG.info("Loading data for {} crypto", cryptoName);
+    private static double seriesSize(Crypto crypto) {
+        return Objects.isNull(crypto) ? 0 : crypto.getSeries().size();
+    }
+
+    /**
+     * Reads the whole prices file
+     */
+    private static Crypto readData(String cryptoName, Path file) throws IOException {
         Crypto crypto = new Crypto(cryptoName);
-        List<CryptoData> cryptoData = new ArrayList<>();
-        crypto.setData(cryptoData);
-        try {
-            String fileName = pricesFolder + File.separator + cryptoName + CRYPTO_FILE_NAME_SUFFIX;
-            BufferedReader reader = new BufferedReader(new FileReader(fileName));
-            reader.readLine();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] values = line.split(COMA_DELIMITER);
-                cryptoData.add(extractData(values));
-            }
-            crypto.setLastUploadFileDate(Instant.now());
-            cryptoMap.put(cryptoName, crypto);
-        } finally {
-            LOG.info("{} crypto is loaded", cryptoName);
-            lock.unlock();
+        crypto.setLastUploadFileDate(Instant.now());
+        PriceSeries.Builder series = PriceSeries.builder();
+        PriceFileReader.ReadResult result = READER.read(file, series);
+        crypto.setSeries(series.build(storage));
+        crypto.setFileState(READER.fileState(file, result.getOffset(), crypto.getSeries().lastTimestamp()));
+        for (RollupResolution resolution : RollupResolution.values()) {
+            crypto.getRollups().put(resolution, PriceRollup.build(crypto.getSeries(), resolution, rollupZone));
+        }
+        crypto.setStatistics(PriceStatistics.build(crypto.getSeries()));
+        PriceMetrics.recordParsed(cryptoName, result.getOffset(), result.getRows());
+        LOG.debug("Read {} rows, {} bytes, malformed lines: {}", result.getRows(), result.getOffset(), result.getMalformed());
+        return crypto;
+    }
+
+    /**
+     * Reads only lines appended to the file since the previous load
+     */
+    private static Crypto appendData(Crypto loaded, Path file) throws IOException {
+        Crypto crypto = new Crypto(loaded.getName());
+        crypto.setLastUploadFileDate(Instant.now());
+        PriceFileState state = loaded.getFileState();
+        PriceSeries.Builder tail = PriceSeries.builder();
+        PriceFileReader.ReadResult result = READER.read(file, state.getOffset(), false, tail);
+        PriceSeries tailSeries = tail.build(loaded.getSeries().isEmpty() ? storage : PriceStorage.heap());
+        boolean merged = !tailSeries.isEmpty() && tailSeries.timestamp(0) < state.getLastTimestamp();
+        if (merged) {
+            LOG.warn("Appended prices of {} are older than the last loaded timestamp {}, series will be merged",
+                loaded.getName(), Instant.ofEpochMilli(state.getLastTimestamp()));
         }
+        crypto.setSeries(loaded.getSeries().append(tailSeries));
+        crypto.setFileState(READER.fileState(file, result.getOffset(), crypto.getSeries().lastTimestamp()));
+        appendRollups(loaded, crypto, merged);
+        PriceMetrics.recordParsed(loaded.getName(), result.getOffset() - state.getOffset(), result.getRows());
+        LOG.debug("Appended {} rows, {} bytes, malformed lines: {}", result.getRows(),
+            result.getOffset() - state.getOffset(), result.getMalformed());
         return crypto;
     }
 
-    private static CryptoData extractData(String[] values) {
-        CryptoData data = new CryptoData();
-        data.setDate(Instant.ofEpochMilli(Long.parseLong(values[0])));
-        data.setPrice(values[2]);
-        return data;
+    /**
+     * Extends rollups and statistics of the loaded crypto to the series of the new one,
+     * merged series needs new rollups and statistics
+     */
+    private static void appendRollups(Crypto loaded, Crypto crypto, boolean merged) {
+        for (RollupResolution resolution : RollupResolution.values()) {
+            PriceRollup rollup = loaded.getRollups().get(resolution);
+            crypto.getRollups().put(resolution, merged || Objects.isNull(rollup) || !rollup.getZone().equals(rollupZone)
+                ? PriceRollup.build(crypto.getSeries(), resolution, rollupZone)
+                : rollup.append(crypto.getSeries()));
+        }
+        crypto.setStatistics(merged || Objects.isNull(loaded.getStatistics())
+            ? PriceStatistics.build(crypto.getSeries())
+            : loaded.getStatistics().append(crypto.getSeries()));
     }
 
+    /**
+     * Checked with the crypto lock held, so lines written by ingest are seen together with the file state they update
+     */
     private static boolean isDataUpToDate(String cryptoName) throws IOException {
-        Crypto crypto = cryptoMap.get(cryptoName);
-        String fileName = pricesFolder + File.separator + cryptoName + CRYPTO_FILE_NAME_SUFFIX;
-        Instant fileLastUpdate = lastUpdate(fileName).toInstant();
+        synchronized (lock(cryptoName)) {
+            return isFileLoaded(cryptoName);
+        }
+    }
+
+    private static boolean isFileLoaded(String cryptoName) throws IOException {
+        Crypto crypto = cryptoCache.peek(cryptoName);
+        if (Objects.isNull(crypto)) {
+            return true;
+        }
+        Path file = priceFile(cryptoName);
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        Instant fileLastUpdate = attributes.lastModifiedTime().toInstant();
         Instant lastUpload = crypto.getLastUploadFileDate();
         LOG.debug("File last update: {}", fileLastUpdate);
         LOG.debug("File last upload: {}", lastUpload);
-        return lastUpload.isAfter(fileLastUpdate);
-    }
-
-    private static FileTime lastUpdate(String fileName) throws IOException {
-        Path file = Paths.get(fileName);
-        BasicFileAttributes attr = Files.readAttributes(file, BasicFileAttributes.class);
-        return attr.lastModifiedTime();
+        return lastUpload.isAfter(fileLastUpdate)
+            && (Objects.isNull(crypto.getFileState()) || crypto.getFileState().getOffset() == attributes.size());
     }
 }
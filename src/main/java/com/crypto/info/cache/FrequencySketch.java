@@ -0,0 +1,73 @@
+package com.crypto.info.cache;
+
+/***
+ * Count-min sketch of 4-bit counters estimating how often keys were requested.
+ * Every key is counted in 4 counters, estimate is the smallest of them. When the number of increments
+ * reaches the sample size all counters are halved, so the estimate follows recent popularity.
+ */
+final class FrequencySketch {
+
+    private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_COUNT = 15;
+    private static final int COUNTERS_PER_WORD = 16;
+    private static final int MIN_WIDTH = 16;
+
+    private final long[] table;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * @param expectedKeys - number of keys expected to be counted, table is sized for them
+     */
+    FrequencySketch(int expectedKeys) {
+        int width = Integer.highestOneBit(Math.max(MIN_WIDTH, expectedKeys) - 1) << 1;
+        table = new long[width];
+        sampleSize = 10 * width;
+    }
+
+    /**
+     * @return estimated number of requests of the key, at most 15
+     */
+    int frequency(String key) {
+        int hash = key.hashCode();
+        int frequency = MAX_COUNT;
+        for (int i = 0; i < SEEDS.length; i++) {
+            int counter = counter(hash, i);
+            frequency = Math.min(frequency, (int) (table[counter >>> 4] >>> ((counter & 15) << 2)) & MAX_COUNT);
+        }
+        return frequency;
+    }
+
+    void increment(String key) {
+        int hash = key.hashCode();
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            int counter = counter(hash, i);
+            int shift = (counter & 15) << 2;
+            if (((table[counter >>> 4] >>> shift) & MAX_COUNT) != MAX_COUNT) {
+                table[counter >>> 4] += 1L << shift;
+                added = true;
+            }
+        }
+        if (added && ++additions == sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions /= 2;
+    }
+
+    /**
+     * @return position of the i-th counter of the key among all counters of the table
+     */
+    private int counter(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h ^= h >>> 32;
+        return (int) h & (table.length * COUNTERS_PER_WORD - 1);
+    }
+}
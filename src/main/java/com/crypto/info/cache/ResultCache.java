@@ -0,0 +1,206 @@
+package com.crypto.info.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/***
+ * Bounded cache of computed responses, the least recently used entry is evicted.
+ * Key has to contain versions of all the data the result is computed from,
+ * so entries are never invalidated: changed data gives a new key and old entries are evicted.
+ * Concurrent misses of the same key are coalesced: one request computes the result, the others wait for it
+ * until their request deadline.
+ * Entity tags are derived from the key and a random generation of the cache,
+ * tags given out before restart never match.
+ */
+public class ResultCache implements MeterBinder {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ResultCache.class);
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final int TAG_BYTES = 16;
+
+    private final int maxSize;
+    private final String generation = UUID.randomUUID().toString();
+    private final Map<String, VersionedResult<?>> entries;
+    /**
+     * Results being computed, guarded by the entries lock
+     */
+    private final Map<String, CompletableFuture<VersionedResult<?>>> computing = new HashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxSize - max number of cached results, 0 disables caching but tags are still given
+     */
+    public ResultCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, VersionedResult<?>> eldest) {
+                if (size() > ResultCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns cached result or computes and caches it. Computation is done outside of the lock,
+     * concurrent misses of the same key wait for the first one and get its result or its exception.
+     *
+     * @param key      - endpoint, resolved parameters and versions of the used data
+     * @param compute  - computes result from the data of the versions in the key
+     * @param deadline - {@link System#nanoTime()} value a coalesced miss stops waiting at
+     * @throws IllegalStateException if the result computed by another request is not ready by the deadline
+     */
+    @SuppressWarnings("unchecked")
+    public <T> VersionedResult<T> get(String key, Supplier<T> compute, long deadline) {
+        VersionedResult<?> cached;
+        CompletableFuture<VersionedResult<?>> running;
+        CompletableFuture<VersionedResult<?>> started = null;
+        synchronized (entries) {
+            cached = entries.get(key);
+            running = Objects.isNull(cached) ? computing.get(key) : null;
+            if (Objects.isNull(cached) && Objects.isNull(running)) {
+                started = new CompletableFuture<>();
+                computing.put(key, started);
+            }
+        }
+        if (Objects.nonNull(cached)) {
+            hits.increment();
+            return (VersionedResult<T>) cached;
+        }
+        if (Objects.nonNull(running)) {
+            coalesced.increment();
+            return (VersionedResult<T>) join(running, deadline);
+        }
+        misses.increment();
+        LOG.debug("Result cache miss: {}", key);
+        VersionedResult<T> result;
+        try {
+            result = new VersionedResult<>(compute.get(), tag(key));
+        } catch (RuntimeException | Error e) {
+            synchronized (entries) {
+                computing.remove(key);
+            }
+            started.completeExceptionally(e);
+            throw e;
+        }
+        synchronized (entries) {
+            if (maxSize > 0) {
+                entries.put(key, result);
+            }
+            computing.remove(key);
+        }
+        started.complete(result);
+        return result;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return number of misses which waited for the same result computed by another request
+     */
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Registers hit, miss and coalesced counters, evictions and size, all read from the cache when scraped
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+            .tags("cache", "results", "result", "hit")
+            .register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+            .tags("cache", "results", "result", "miss")
+            .register(registry);
+        FunctionCounter.builder("cache.coalesced", coalesced, LongAdder::sum)
+            .tags("cache", "results")
+            .register(registry);
+        FunctionCounter.builder("cache.evictions", evictions, LongAdder::sum)
+            .tags("cache", "results")
+            .register(registry);
+        Gauge.builder("cache.size", this, ResultCache::size)
+            .tags("cache", "results")
+            .register(registry);
+    }
+
+    /**
+     * @return result computed by another request, its exception is rethrown as is
+     * @throws IllegalStateException if the result is not ready by the deadline, the computation goes on
+     */
+    private static VersionedResult<?> join(CompletableFuture<VersionedResult<?>> running, long deadline) {
+        try {
+            return running.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getMessage(), e);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Result computed by another request is not ready by the request deadline", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a result", e);
+        }
+    }
+
+    private String tag(String key) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+        digest.update(generation.getBytes(StandardCharsets.UTF_8));
+        byte[] hash = digest.digest(key.getBytes(StandardCharsets.UTF_8));
+        StringBuilder tag = new StringBuilder(TAG_BYTES * 2 + 2).append('"');
+        for (int i = 0; i < TAG_BYTES; i++) {
+            tag.append(HEX[(hash[i] >> 4) & 0xF]).append(HEX[hash[i] & 0xF]);
+        }
+        return tag.append('"').toString();
+    }
+}
@@ -0,0 +1,310 @@
+package com.crypto.info.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+/***
+ * Cache bounded by the total weight of its values, evicted with W-TinyLFU policy.
+ * New entries get into a small LRU window, entries leaving the window compete with the least recently used
+ * entry of the main space and the one requested less often (see {@link FrequencySketch}) is evicted.
+ * Main space is split into probation and protected segments, entry requested in probation becomes protected.
+ * Pinned keys are never evicted, their weight still counts against the limit.
+ * Weight held outside of the cache, e.g. by evicted values which are not freed yet, can be counted against the limit too.
+ */
+public class TinyLfuCache<V> implements MeterBinder {
+
+    private static final int WINDOW_PERCENT = 1;
+    private static final int PROTECTED_PERCENT = 80;
+
+    private final String name;
+    private final long maxWeight;
+    private final long windowMaxWeight;
+    private final ToLongFunction<V> weigher;
+    private final LongSupplier outsideWeight;
+    private final Set<String> pinnedKeys;
+    private final BiConsumer<String, V> evictionListener;
+    private final FrequencySketch sketch;
+
+    /**
+     * All entries for lookups which do not change the order of segments
+     */
+    private final Map<String, Entry<V>> entries = new HashMap<>();
+    private final Map<String, Entry<V>> pinned = new HashMap<>();
+    private final LinkedHashMap<String, Entry<V>> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Entry<V>> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Entry<V>> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+    private long pinnedWeight;
+    private long windowWeight;
+    private long probationWeight;
+    private long protectedWeight;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param name             - cache name used as metrics tag
+     * @param maxWeight        - max total weight of the values
+     * @param weigher          - weight of a value, it is taken once when the value is put
+     * @param pinnedKeys       - keys which are never evicted
+     * @param expectedKeys     - approximate number of distinct keys, used to size the frequency sketch
+     * @param evictionListener - called with evicted entries outside of the cache lock
+     */
+    public TinyLfuCache(String name, long maxWeight, ToLongFunction<V> weigher, Set<String> pinnedKeys,
+                        int expectedKeys, BiConsumer<String, V> evictionListener) {
+        this(name, maxWeight, weigher, () -> 0, pinnedKeys, expectedKeys, evictionListener);
+    }
+
+    /**
+     * @param outsideWeight - weight held outside of the cache which counts against the limit, read on every put
+     */
+    public TinyLfuCache(String name, long maxWeight, ToLongFunction<V> weigher, LongSupplier outsideWeight,
+                        Set<String> pinnedKeys, int expectedKeys, BiConsumer<String, V> evictionListener) {
+        this.name = name;
+        this.maxWeight = maxWeight;
+        this.windowMaxWeight = maxWeight / 100 * WINDOW_PERCENT;
+        this.weigher = weigher;
+        this.outsideWeight = outsideWeight;
+        this.pinnedKeys = pinnedKeys;
+        this.evictionListener = evictionListener;
+        this.sketch = new FrequencySketch(expectedKeys);
+    }
+
+    /**
+     * Returns cached value and counts the request of the key, also if the value is not cached
+     *
+     * @return value or null if it is not cached
+     */
+    public V get(String key) {
+        Entry<V> entry;
+        synchronized (this) {
+            sketch.increment(key);
+            entry = find(key);
+        }
+        if (Objects.isNull(entry)) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    /**
+     * @return value or null if it is not cached, request is not counted
+     */
+    public synchronized V peek(String key) {
+        Entry<V> entry = entries.get(key);
+        return Objects.isNull(entry) ? null : entry.value;
+    }
+
+    /**
+     * Puts the value and evicts entries over the weight limit, the put entry itself may be evicted
+     */
+    public void put(String key, V value) {
+        Entry<V> entry = new Entry<>(value, weigher.applyAsLong(value));
+        List<Map.Entry<String, V>> evicted = new ArrayList<>();
+        synchronized (this) {
+            remove(key, false);
+            entries.put(key, entry);
+            if (pinnedKeys.contains(key)) {
+                pinned.put(key, entry);
+                pinnedWeight += entry.weight;
+            } else {
+                window.put(key, entry);
+                windowWeight += entry.weight;
+            }
+            evict(evicted);
+        }
+        notifyEvicted(evicted);
+    }
+
+    /**
+     * @return removed value or null if it was not cached, eviction listener is not called
+     */
+    public synchronized V remove(String key) {
+        Entry<V> entry = remove(key, false);
+        return Objects.isNull(entry) ? null : entry.value;
+    }
+
+    /**
+     * @return copy of all cached values
+     */
+    public synchronized List<V> values() {
+        List<V> values = new ArrayList<>(entries.size());
+        entries.values().forEach(entry -> values.add(entry.value));
+        return values;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long weight() {
+        return pinnedWeight + windowWeight + probationWeight + protectedWeight;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Registers hit and miss counters, evictions, size and weight, all read from the cache when scraped
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+            .tags("cache", name, "result", "hit")
+            .register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+            .tags("cache", name, "result", "miss")
+            .register(registry);
+        FunctionCounter.builder("cache.evictions", evictions, LongAdder::sum)
+            .tags("cache", name)
+            .register(registry);
+        Gauge.builder("cache.size", this, TinyLfuCache::size)
+            .tags("cache", name)
+            .register(registry);
+        Gauge.builder("cache.weight", this, TinyLfuCache::weight)
+            .tags("cache", name)
+            .register(registry);
+    }
+
+    /**
+     * Finds entry and marks it as recently used, entry requested in probation is moved to protected segment
+     */
+    private Entry<V> find(String key) {
+        Entry<V> entry = pinned.get(key);
+        if (Objects.nonNull(entry)) {
+            return entry;
+        }
+        entry = window.get(key);
+        if (Objects.nonNull(entry)) {
+            return entry;
+        }
+        entry = protectedSegment.get(key);
+        if (Objects.nonNull(entry)) {
+            return entry;
+        }
+        entry = probation.remove(key);
+        if (Objects.nonNull(entry)) {
+            probationWeight -= entry.weight;
+            protectedSegment.put(key, entry);
+            protectedWeight += entry.weight;
+            long protectedMaxWeight = (maxWeight - windowMaxWeight) / 100 * PROTECTED_PERCENT;
+            while (protectedWeight > protectedMaxWeight && protectedSegment.size() > 1) {
+                Map.Entry<String, Entry<V>> demoted = removeEldest(protectedSegment);
+                protectedWeight -= demoted.getValue().weight;
+                probation.put(demoted.getKey(), demoted.getValue());
+                probationWeight += demoted.getValue().weight;
+            }
+        }
+        return entry;
+    }
+
+    private Entry<V> remove(String key, boolean evicted) {
+        Entry<V> entry = entries.remove(key);
+        if (Objects.isNull(entry)) {
+            return null;
+        }
+        if (Objects.nonNull(pinned.remove(key))) {
+            pinnedWeight -= entry.weight;
+        } else if (Objects.nonNull(window.remove(key))) {
+            windowWeight -= entry.weight;
+        } else if (Objects.nonNull(probation.remove(key))) {
+            probationWeight -= entry.weight;
+        } else if (Objects.nonNull(protectedSegment.remove(key))) {
+            protectedWeight -= entry.weight;
+        }
+        if (evicted) {
+            evictions.increment();
+        }
+        return entry;
+    }
+
+    /**
+     * Moves entries over the window limit to probation if they are requested more often than
+     * the main space victims, then evicts the least valuable entries until the total weight fits the limit.
+     * The newest window entry is kept while there is anything else to evict.
+     */
+    private void evict(List<Map.Entry<String, V>> evicted) {
+        long limit = maxWeight - Math.min(maxWeight, outsideWeight.getAsLong());
+        while (windowWeight > windowMaxWeight && window.size() > 1) {
+            Map.Entry<String, Entry<V>> candidate = removeEldest(window);
+            windowWeight -= candidate.getValue().weight;
+            admit(candidate, limit, evicted);
+        }
+        while (weight() > limit && !(probation.isEmpty() && protectedSegment.isEmpty() && window.isEmpty())) {
+            String victim = !probation.isEmpty() ? eldestKey(probation)
+                : !protectedSegment.isEmpty() ? eldestKey(protectedSegment) : eldestKey(window);
+            evicted.add(Map.entry(victim, remove(victim, true).value));
+        }
+    }
+
+    private void admit(Map.Entry<String, Entry<V>> candidate, long limit, List<Map.Entry<String, V>> evicted) {
+        long candidateWeight = candidate.getValue().weight;
+        int candidateFrequency = sketch.frequency(candidate.getKey());
+        while (weight() + candidateWeight > limit && !(probation.isEmpty() && protectedSegment.isEmpty())) {
+            String victim = !probation.isEmpty() ? eldestKey(probation) : eldestKey(protectedSegment);
+            if (candidateFrequency <= sketch.frequency(victim)) {
+                entries.remove(candidate.getKey());
+                evictions.increment();
+                evicted.add(Map.entry(candidate.getKey(), candidate.getValue().value));
+                return;
+            }
+            evicted.add(Map.entry(victim, remove(victim, true).value));
+        }
+        probation.put(candidate.getKey(), candidate.getValue());
+        probationWeight += candidateWeight;
+    }
+
+    private void notifyEvicted(List<Map.Entry<String, V>> evicted) {
+        for (Map.Entry<String, V> entry : evicted) {
+            evictionListener.accept(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private static <V> String eldestKey(LinkedHashMap<String, Entry<V>> segment) {
+        return segment.keySet().iterator().next();
+    }
+
+    private static <V> Map.Entry<String, Entry<V>> removeEldest(LinkedHashMap<String, Entry<V>> segment) {
+        Iterator<Map.Entry<String, Entry<V>>> iterator = segment.entrySet().iterator();
+        Map.Entry<String, Entry<V>> eldest = iterator.next();
+        iterator.remove();
+        return Map.entry(eldest.getKey(), eldest.getValue());
+    }
+
+    private static final class Entry<V> {
+
+        private final V value;
+        private final long weight;
+
+        private Entry(V value, long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.crypto.info.cache;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+/***
+ * Computed response with strong entity tag of the data versions it was computed from.
+ * Serialized form of the response is kept with it, so cached result is serialized once.
+ */
+public final class VersionedResult<T> {
+
+    private final T value;
+    private final String etag;
+    private volatile Object rendered;
+
+    public VersionedResult(T value, String etag) {
+        this.value = value;
+        this.etag = etag;
+    }
+
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * @return quoted entity tag
+     */
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * @return quoted entity tag of the gzip-compressed representation, it differs from the plain one
+     */
+    public String getGzipEtag() {
+        return etag.substring(0, etag.length() - 1) + "-gzip\"";
+    }
+
+    /**
+     * Serialized form of the value, rendered on the first call and kept with the result.
+     * Concurrent first calls may render it more than once.
+     *
+     * @param render - serializes the value, all calls should pass the same function
+     */
+    @SuppressWarnings("unchecked")
+    public <R> R rendered(Function<T, R> render) {
+        Object result = rendered;
+        if (Objects.isNull(result)) {
+            result = render.apply(value);
+            rendered = result;
+        }
+        return (R) result;
+    }
+
+    /**
+     * @param ifNoneMatch - value of If-None-Match header, may be null
+     * @return true if the client already has this result, plain or gzip-compressed
+     */
+    public boolean matches(String ifNoneMatch) {
+        if (Objects.isNull(ifNoneMatch)) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag) || tag.equals(getGzipEtag())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,9 +1,43 @@
 package com.crypto.info.config;
 
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfoHandlerMapping;
+import springfox.documentation.spring.web.plugins.WebMvcRequestHandlerProvider;
 import springfox.documentation.swagger2.annotations.EnableSwagger2;
 
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Objects;
+
 @Configuration
 @EnableSwagger2
 public class SwaggerConfig {
+
+    /**
+     * Actuator endpoints are mapped with path pattern parser, which springfox does not support:
+     * only the handler mappings without the parser are documented, otherwise the context does not start
+     */
+    @Bean
+    public static BeanPostProcessor springfoxHandlerProviderBeanPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof WebMvcRequestHandlerProvider) {
+                    handlerMappings(bean).removeIf(mapping -> Objects.nonNull(mapping.getPatternParser()));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<RequestMappingInfoHandlerMapping> handlerMappings(Object bean) {
+        Field field = ReflectionUtils.findField(bean.getClass(), "handlerMappings");
+        Objects.requireNonNull(field, "Handler mappings of springfox are not found");
+        ReflectionUtils.makeAccessible(field);
+        return (List<RequestMappingInfoHandlerMapping>) ReflectionUtils.getField(field, bean);
+    }
 }
@@ -1,20 +1,43 @@
 package com.crypto.info.controller;
 
+import com.crypto.info.cache.VersionedResult;
 import com.crypto.info.model.Crypto;
+import com.crypto.info.model.CryptoBatchRequest;
+import com.crypto.info.model.CryptoBatchResult;
+import com.crypto.info.model.CryptoCorrelation;
+import com.crypto.info.model.CryptoData;
+import com.crypto.info.model.CryptoIngestResult;
 import com.crypto.info.model.CryptoLimits;
 import com.crypto.info.model.CryptoNormalizedRange;
+import com.crypto.info.model.CryptoStatistics;
+import com.crypto.info.model.CryptoWindow;
+import com.crypto.info.model.PriceSeries;
+import com.crypto.info.model.RollupResolution;
+import com.crypto.info.model.SeriesWindow;
 import com.crypto.info.service.impl.CryptoServiceImpl;
+import com.crypto.info.service.impl.PriceUpdateHub;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 
 @Controller
@@ -24,26 +47,61 @@ public class CryptoController {
     private static final Logger LOG = LoggerFactory.getLogger(CryptoController.class);
 
     private final CryptoServiceImpl cryptoService;
+    private final ObjectMapper objectMapper;
 
-    public CryptoController(CryptoServiceImpl cryptoService) {
+    public CryptoController(CryptoServiceImpl cryptoService, ObjectMapper objectMapper) {
         this.cryptoService = cryptoService;
+        this.objectMapper = objectMapper;
     }
 
     /**
-     * Return cryptocurrency object with all data
+     * Return cryptocurrency object with price points, body is streamed while it is written.
+     * Points can be limited by time range and paged: the response has "next" cursor while there are more points.
+     * With points parameter the range is downsampled to the lowest and the highest price of equal buckets.
      *
      * @param cryptoName - name of requested cryptocurrency
+     * @param from,to    - ISO-8601 instants of the range [from, to), whole history if absent
+     * @param limit      - max number of points in the response
+     * @param cursor     - "next" value of the previous page
+     * @param points     - max number of points of downsampled range, can't be used with limit and cursor
      */
     @RequestMapping(method = RequestMethod.GET, value = "/{cryptoName}")
-    public ResponseEntity<Crypto> getCryptocurrency(@PathVariable String cryptoName) {
+    public ResponseEntity<StreamingResponseBody> getCryptocurrency(@PathVariable String cryptoName,
+                                                                   @RequestParam(required = false) String from,
+                                                                   @RequestParam(required = false) String to,
+                                                                   @RequestParam(required = false) Integer limit,
+                                                                   @RequestParam(required = false) String cursor,
+                                                                   @RequestParam(required = false) Integer points) {
         if (cryptoName.isEmpty() || !cryptoService.isSupportedCrypto(cryptoName)) {
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
         Crypto crypto = cryptoService.getCryptoData(cryptoName);
         if (Objects.isNull(crypto)) {
-            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+            return serviceUnavailable();
         }
-        return new ResponseEntity<>(crypto, HttpStatus.OK);
+        CryptoDataStream body;
+        try {
+            SeriesWindow window = SeriesWindow.between(crypto.getSeries(), parseInstant(from), parseInstant(to));
+            if (Objects.nonNull(points)) {
+                if (Objects.nonNull(limit) || Objects.nonNull(cursor)) {
+                    throw new IllegalArgumentException("Downsampling can't be used with limit or cursor");
+                }
+                body = new CryptoDataStream(objectMapper, crypto, window.indexesOfMinMax(points));
+            } else {
+                if (Objects.nonNull(cursor)) {
+                    window = startingAtCursor(window, cursor);
+                }
+                SeriesWindow page = Objects.isNull(limit) ? window : window.limit(limit);
+                String next = page.getTo() < window.getTo() ? cursorOf(crypto.getSeries(), page.getTo()) : null;
+                body = new CryptoDataStream(objectMapper, crypto, page, next);
+            }
+        } catch (RuntimeException e) {
+            LOG.warn(e.getMessage(), e);
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
     }
 
     /**
@@ -52,18 +110,23 @@ public class CryptoController {
      * @param days,month,years - defines limit by date
      */
     @RequestMapping(method = RequestMethod.GET, value = "/limits")
-    public ResponseEntity<List<CryptoLimits>> getAllCryptosLimits(@RequestParam(required = false, defaultValue = "0") String days,
-                                                                  @RequestParam(required = false, defaultValue = "0") String month,
-                                                                  @RequestParam(required = false, defaultValue = "0") String years) {
+    public ResponseEntity<byte[]> getAllCryptosLimits(@RequestParam(required = false, defaultValue = "0") String days,
+                                                      @RequestParam(required = false, defaultValue = "0") String month,
+                                                      @RequestParam(required = false, defaultValue = "0") String years,
+                                                      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         LOG.info("Find values for days: {}, month: {}, years: {}", days, month, years);
-        List<CryptoLimits> limits;
+        VersionedResult<List<CryptoLimits>> limits;
         try {
-            limits = cryptoService.getAllCryptosLimits(days, month, years);
+            limits = cryptoService.getAllCryptosLimitsResult(days, month, years);
+        } catch (IllegalStateException e) {
+            LOG.warn(e.getMessage(), e);
+            return serviceUnavailable();
         } catch (RuntimeException e) {
             LOG.warn(e.getMessage(), e);
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
-        return new ResponseEntity<>(limits, HttpStatus.OK);
+        return renderedResponse(limits, ifNoneMatch, acceptEncoding);
     }
 
     /**
@@ -72,31 +135,192 @@ public class CryptoController {
      * @param days,month,years - defines limit by date
      */
     @RequestMapping(method = RequestMethod.GET, value = "/limits/{cryptoName}")
-    public ResponseEntity<CryptoLimits> getCryptoLimits(@PathVariable String cryptoName,
-                                                        @RequestParam(required = false, defaultValue = "0") String days,
-                                                        @RequestParam(required = false, defaultValue = "0") String month,
-                                                        @RequestParam(required = false, defaultValue = "0") String years) {
+    public ResponseEntity<byte[]> getCryptoLimits(@PathVariable String cryptoName,
+                                                  @RequestParam(required = false, defaultValue = "0") String days,
+                                                  @RequestParam(required = false, defaultValue = "0") String month,
+                                                  @RequestParam(required = false, defaultValue = "0") String years,
+                                                  @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                  @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         LOG.info("Find values for days: {}, month: {}, years: {}", days, month, years);
         if (cryptoName.isEmpty() || !cryptoService.isSupportedCrypto(cryptoName)) {
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
-        CryptoLimits limits;
+        VersionedResult<CryptoLimits> limits;
         try {
-            limits = cryptoService.getCryptoLimits(cryptoName, days, month, years);
+            limits = cryptoService.getCryptoLimitsResult(cryptoName, days, month, years);
         } catch (RuntimeException e) {
             LOG.warn(e.getMessage(), e);
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
-        return new ResponseEntity<>(limits, HttpStatus.OK);
+        if (Objects.isNull(limits)) {
+            return new ResponseEntity<>(HttpStatus.OK);
+        }
+        return renderedResponse(limits, ifNoneMatch, acceptEncoding);
+    }
+
+    /**
+     * Return mean, standard deviation, change, volatility and moving averages of a specific crypto,
+     * computed from prefix sums without reading the points of the range
+     *
+     * @param from,to - ISO-8601 instants of the range [from, to), whole history if absent
+     * @param span    - number of points of the moving averages
+     */
+    @RequestMapping(method = RequestMethod.GET, value = "/statistics/{cryptoName}")
+    public ResponseEntity<CryptoStatistics> getCryptoStatistics(@PathVariable String cryptoName,
+                                                                @RequestParam(required = false) String from,
+                                                                @RequestParam(required = false) String to,
+                                                                @RequestParam(required = false, defaultValue = "20") int span,
+                                                                @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (cryptoName.isEmpty() || !cryptoService.isSupportedCrypto(cryptoName)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        VersionedResult<CryptoStatistics> statistics;
+        try {
+            statistics = cryptoService.getCryptoStatisticsResult(cryptoName, parseInstant(from), parseInstant(to), span);
+        } catch (RuntimeException e) {
+            LOG.warn(e.getMessage(), e);
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        if (Objects.isNull(statistics)) {
+            return new ResponseEntity<>(HttpStatus.OK);
+        }
+        return versionedResponse(statistics, ifNoneMatch);
+    }
+
+    /**
+     * Return correlation matrix of log returns of several cryptos. Prices are resampled to common grid of hourly,
+     * daily or weekly buckets, every crypto has the last close price at or before each grid point.
+     *
+     * @param cryptos    - cryptos of the matrix, all if empty
+     * @param resolution - hour, day or week
+     * @param from,to    - ISO-8601 instants of the grid range [from, to), whole history if absent
+     */
+    @RequestMapping(method = RequestMethod.GET, value = "/correlation")
+    public ResponseEntity<CryptoCorrelation> getCorrelation(@RequestParam(required = false) List<String> cryptos,
+                                                            @RequestParam(required = false, defaultValue = "day") String resolution,
+                                                            @RequestParam(required = false) String from,
+                                                            @RequestParam(required = false) String to,
+                                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        List<String> cryptoNames = Objects.isNull(cryptos) || cryptos.isEmpty() ? cryptoService.getSupportedCryptos() : cryptos;
+        if (!cryptoNames.stream().allMatch(cryptoService::isSupportedCrypto)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        VersionedResult<CryptoCorrelation> correlation;
+        try {
+            correlation = cryptoService.getCorrelationResult(cryptoNames,
+                RollupResolution.valueOf(resolution.toUpperCase(Locale.ROOT)), parseInstant(from), parseInstant(to));
+        } catch (IllegalStateException e) {
+            LOG.warn(e.getMessage(), e);
+            return serviceUnavailable();
+        } catch (RuntimeException e) {
+            LOG.warn(e.getMessage(), e);
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return versionedResponse(correlation, ifNoneMatch);
+    }
+
+    /**
+     * Return limits and normalized ranges of several periods of time for several cryptos in one response
+     *
+     * @param request - cryptos (all if empty), periods of time (whole history if empty) and normalized range flag
+     */
+    @RequestMapping(method = RequestMethod.POST, value = "/batch")
+    public ResponseEntity<List<CryptoBatchResult>> getBatch(@RequestBody CryptoBatchRequest request) {
+        List<String> cryptoNames = Objects.isNull(request.getCryptos()) || request.getCryptos().isEmpty()
+            ? cryptoService.getSupportedCryptos() : request.getCryptos();
+        if (!cryptoNames.stream().allMatch(cryptoService::isSupportedCrypto)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        List<CryptoWindow> windows = Objects.isNull(request.getWindows()) || request.getWindows().isEmpty()
+            ? List.of(new CryptoWindow()) : request.getWindows();
+        List<CryptoBatchResult> results;
+        try {
+            results = cryptoService.getBatch(cryptoNames, windows, request.isNormalizedRange());
+        } catch (IllegalStateException e) {
+            LOG.warn(e.getMessage(), e);
+            return serviceUnavailable();
+        } catch (RuntimeException e) {
+            LOG.warn(e.getMessage(), e);
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
+
+    /**
+     * Adds ticks to the prices of their cryptos, only if ingest is enabled. Accepted ticks are seen by the next request,
+     * prices files are appended in batches. Out of order and duplicate ticks are rejected or merged
+     * depending on configuration.
+     *
+     * @param ticks - date, name and price of every tick, ticks of one crypto in order of arrival
+     * @return number of accepted and rejected ticks of every crypto
+     */
+    @RequestMapping(method = RequestMethod.POST, value = "/ingest")
+    public ResponseEntity<List<CryptoIngestResult>> ingest(@RequestBody List<CryptoData> ticks) {
+        if (!cryptoService.isIngestEnabled()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        if (Objects.isNull(ticks) || ticks.isEmpty()
+            || !ticks.stream().allMatch(tick -> Objects.nonNull(tick) && cryptoService.isSupportedCrypto(tick.getName()))) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        List<CryptoIngestResult> results;
+        try {
+            results = cryptoService.ingest(ticks);
+        } catch (IllegalStateException e) {
+            LOG.warn(e.getMessage(), e);
+            return serviceUnavailable();
+        } catch (IllegalArgumentException e) {
+            LOG.warn(e.getMessage(), e);
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
+
+    /**
+     * Stream of server-sent "update" events with new ticks, limits and normalized range of the whole history.
+     * Update of the current prices is sent on subscribe, then updates are sent only when prices are loaded
+     * or ingested. Updates of one interval are coalesced, slow client gets the newest limits and the newest ticks.
+     *
+     * @param cryptos - subscribed cryptos, all cryptos if empty
+     */
+    @RequestMapping(method = RequestMethod.GET, value = "/updates", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> getUpdates(@RequestParam(required = false) List<String> cryptos) {
+        List<String> cryptoNames = Objects.isNull(cryptos) ? List.of() : cryptos;
+        if (!cryptoNames.stream().allMatch(cryptoService::isSupportedCrypto)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        SseEmitter emitter = new SseEmitter(cryptoService.getUpdatesTimeout());
+        PriceUpdateHub.Subscription subscription;
+        try {
+            subscription = cryptoService.subscribe(cryptoNames, update -> emitter.send(SseEmitter.event()
+                .id(String.valueOf(update.getVersion()))
+                .name("update")
+                .data(update, MediaType.APPLICATION_JSON)));
+        } catch (IllegalStateException e) {
+            LOG.warn(e.getMessage(), e);
+            return serviceUnavailable();
+        }
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(e -> subscription.close());
+        return new ResponseEntity<>(emitter, HttpStatus.OK);
     }
 
     /**
      * @return sorted list of all cryptos, comparing the normalized range
      */
     @RequestMapping(method = RequestMethod.GET, value = "/normalizedRange")
-    public ResponseEntity<List<CryptoNormalizedRange>> getAllCryptoByNormalizedRange() {
-        List<CryptoNormalizedRange> cryptos = cryptoService.getAllCryptoByNormalizedRange();
-        return new ResponseEntity<>(cryptos, HttpStatus.OK);
+    public ResponseEntity<byte[]> getAllCryptoByNormalizedRange(
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        VersionedResult<List<CryptoNormalizedRange>> cryptos;
+        try {
+            cryptos = cryptoService.getAllCryptoByNormalizedRangeResult();
+        } catch (IllegalStateException e) {
+            LOG.warn(e.getMessage(), e);
+            return serviceUnavailable();
+        }
+        return renderedResponse(cryptos, ifNoneMatch, acceptEncoding);
     }
 
     /**
@@ -104,17 +328,87 @@ public class CryptoController {
      * @return crypto with the highest normalized range for a specific date
      */
     @RequestMapping(value = "/normalizedRange/highest")
-    public ResponseEntity<CryptoNormalizedRange> getCryptoByNormalizedRange(@RequestParam(required = false) String day,
-                                                                            @RequestParam(required = false) String month,
-                                                                            @RequestParam(required = false) String year) {
-        CryptoNormalizedRange cryptoRange;
+    public ResponseEntity<byte[]> getCryptoByNormalizedRange(@RequestParam(required = false) String day,
+                                                             @RequestParam(required = false) String month,
+                                                             @RequestParam(required = false) String year,
+                                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                             @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        VersionedResult<CryptoNormalizedRange> cryptoRange;
         try {
-            cryptoRange = cryptoService.getCryptoByHighestNormalizedRange(day, month, year);
+            cryptoRange = cryptoService.getCryptoByHighestNormalizedRangeResult(day, month, year);
+        } catch (IllegalStateException e) {
+            LOG.warn(e.getMessage(), e);
+            return serviceUnavailable();
         } catch (RuntimeException e) {
             LOG.warn(e.getMessage(), e);
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
-        return new ResponseEntity<>(cryptoRange, HttpStatus.OK);
+        return renderedResponse(cryptoRange, ifNoneMatch, acceptEncoding);
+    }
+
+    private static Instant parseInstant(String value) {
+        return Objects.isNull(value) || value.isEmpty() ? null : Instant.parse(value);
+    }
+
+    /**
+     * Cursor keeps timestamp of the next point and number of points with the same timestamp before it,
+     * so it stays valid when prices are appended
+     */
+    private static String cursorOf(PriceSeries series, int index) {
+        long timestamp = series.timestamp(index);
+        String value = timestamp + "." + (index - series.lowerBound(timestamp));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static SeriesWindow startingAtCursor(SeriesWindow window, String cursor) {
+        String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+        int separator = value.indexOf('.');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        return window.startingAt(Long.parseLong(value.substring(0, separator)), Integer.parseInt(value.substring(separator + 1)));
+    }
+
+    /**
+     * @return 503 with Retry-After header, the service is saturated or results are not ready in time
+     */
+    private <T> ResponseEntity<T> serviceUnavailable() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(cryptoService.getResultsRetryAfter()));
+        return new ResponseEntity<>(headers, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * @return result with its entity tag or 304 without body if the client already has the result
+     */
+    private static <T> ResponseEntity<T> versionedResponse(VersionedResult<T> result, String ifNoneMatch) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(result.getEtag());
+        if (result.matches(ifNoneMatch)) {
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+        return new ResponseEntity<>(result.getValue(), headers, HttpStatus.OK);
+    }
+
+    /**
+     * Same as {@link #versionedResponse} with JSON body serialized once per result,
+     * compressed body is sent with its own entity tag if the result is large enough and the client accepts gzip
+     */
+    private ResponseEntity<byte[]> renderedResponse(VersionedResult<?> result, String ifNoneMatch, String acceptEncoding) {
+        RenderedJson body = result.rendered(value -> RenderedJson.render(objectMapper, value, cryptoService.getResultsGzipMinBytes()));
+        boolean gzip = Objects.nonNull(body.getGzip()) && RenderedJson.acceptsGzip(acceptEncoding);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(gzip ? result.getGzipEtag() : result.getEtag());
+        headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+        if (result.matches(ifNoneMatch)) {
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return new ResponseEntity<>(body.getGzip(), headers, HttpStatus.OK);
+        }
+        return new ResponseEntity<>(body.getJson(), headers, HttpStatus.OK);
     }
 
 }
@@ -0,0 +1,85 @@
+package com.crypto.info.controller;
+
+import com.crypto.info.model.Crypto;
+import com.crypto.info.model.PriceSeries;
+import com.crypto.info.model.SeriesWindow;
+import com.crypto.info.util.PriceUtil;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.Objects;
+
+/***
+ * Writes crypto with its price points as JSON directly from the price series.
+ * Output has the same form as serialized {@link Crypto}, rows are not collected to a list
+ * and the body is sent in chunks while it is written.
+ */
+final class CryptoDataStream implements StreamingResponseBody {
+
+    private final ObjectMapper objectMapper;
+    private final Crypto crypto;
+    private final SeriesWindow window;
+    private final int[] indexes;
+    private final String next;
+
+    /**
+     * @param window - points to write
+     * @param next   - cursor of the next page, null if there are no more points
+     */
+    CryptoDataStream(ObjectMapper objectMapper, Crypto crypto, SeriesWindow window, String next) {
+        this(objectMapper, crypto, window, null, next);
+    }
+
+    /**
+     * @param indexes - ascending series indexes of points to write
+     */
+    CryptoDataStream(ObjectMapper objectMapper, Crypto crypto, int[] indexes) {
+        this(objectMapper, crypto, null, indexes, null);
+    }
+
+    private CryptoDataStream(ObjectMapper objectMapper, Crypto crypto, SeriesWindow window, int[] indexes, String next) {
+        this.objectMapper = objectMapper;
+        this.crypto = crypto;
+        this.window = window;
+        this.indexes = indexes;
+        this.next = next;
+    }
+
+    @Override
+    public void writeTo(OutputStream outputStream) throws IOException {
+        PriceSeries series = crypto.getSeries();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            if (Objects.nonNull(crypto.getName()) && !crypto.getName().isEmpty()) {
+                generator.writeStringField("name", crypto.getName());
+            }
+            if (Objects.nonNull(crypto.getLastUploadFileDate())) {
+                generator.writeObjectField("lastUploadFileDate", crypto.getLastUploadFileDate());
+            }
+            int count = Objects.isNull(indexes) ? window.size() : indexes.length;
+            if (count > 0) {
+                generator.writeArrayFieldStart("data");
+                for (int i = 0; i < count; i++) {
+                    writePoint(generator, series, Objects.isNull(indexes) ? window.getFrom() + i : indexes[i]);
+                }
+                generator.writeEndArray();
+            }
+            if (Objects.nonNull(next)) {
+                generator.writeStringField("next", next);
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    private static void writePoint(JsonGenerator generator, PriceSeries series, int index) throws IOException {
+        generator.writeStartObject();
+        generator.writeObjectField("date", Instant.ofEpochMilli(series.timestamp(index)));
+        generator.writeStringField("price", PriceUtil.formatPrice(series.price(index)));
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,87 @@
+package com.crypto.info.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+import java.util.zip.GZIPOutputStream;
+
+/***
+ * Response body serialized to JSON once, with its gzip-compressed form if it is large enough.
+ * Kept with the cached result, so requests of the same data versions only copy the bytes to the response.
+ */
+final class RenderedJson {
+
+    private static final String GZIP = "gzip";
+
+    private final byte[] json;
+    private final byte[] gzip;
+
+    private RenderedJson(byte[] json, byte[] gzip) {
+        this.json = json;
+        this.gzip = gzip;
+    }
+
+    /**
+     * @param gzipMinBytes - min size of the JSON to be compressed, negative to never compress
+     */
+    static RenderedJson render(ObjectMapper objectMapper, Object value, int gzipMinBytes) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e.getMessage(), e);
+        }
+        return new RenderedJson(json, gzipMinBytes >= 0 && json.length >= gzipMinBytes ? gzip(json) : null);
+    }
+
+    byte[] getJson() {
+        return json;
+    }
+
+    /**
+     * @return compressed JSON, null if the JSON is not compressed
+     */
+    byte[] getGzip() {
+        return gzip;
+    }
+
+    /**
+     * @param acceptEncoding - value of Accept-Encoding header, may be null
+     * @return true if the client accepts gzip content coding, explicitly or by "*"
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (Objects.isNull(acceptEncoding)) {
+            return false;
+        }
+        boolean any = false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            boolean accepted = true;
+            for (int i = 1; i < parts.length; i++) {
+                accepted &= !parts[i].replace(" ", "").matches("[qQ]=0(\\.0{0,3})?");
+            }
+            if (name.equalsIgnoreCase(GZIP)) {
+                return accepted;
+            }
+            if (name.equals("*")) {
+                any = accepted;
+            }
+        }
+        return any;
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length / 4 + 32);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e.getMessage(), e);
+        }
+        return bytes.toByteArray();
+    }
+}
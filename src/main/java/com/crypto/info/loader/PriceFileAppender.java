@@ -0,0 +1,235 @@
+package com.crypto.info.loader;
+
+import com.crypto.info.metrics.PriceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/***
+ * Appends ingested lines to the prices files with group commit.
+ * Lines queued by all requests since the previous flush are written to the file of the crypto with one write,
+ * which is forced to disk once for the whole batch if the sync policy requires it.
+ * Queued lines are flushed every interval, or as soon as lines of a crypto reach the batch size.
+ * Lines of a crypto are taken from the queue and written while the crypto lock is held,
+ * so under that lock the file and the queue together always have all ingested lines.
+ */
+public class PriceFileAppender implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PriceFileAppender.class);
+
+    /**
+     * Request waits until its lines are written and forced to disk
+     */
+    public static final String SYNC_ALWAYS = "always";
+    /**
+     * Request returns when its lines are queued, every written batch is forced to disk
+     */
+    public static final String SYNC_BATCH = "batch";
+    /**
+     * Request returns when its lines are queued, written batches reach the disk when the OS decides
+     */
+    public static final String SYNC_NEVER = "never";
+
+    private final Function<String, Path> files;
+    private final Function<String, Object> locks;
+    private final Listener listener;
+    private final String sync;
+    private final int batchBytes;
+    private final ScheduledExecutorService flusher;
+    private final Map<String, Batch> queued = new HashMap<>();
+    private boolean closed;
+
+    /**
+     * @param files          - prices file of the crypto
+     * @param locks          - lock of the crypto, held while its lines are taken from the queue and written
+     * @param listener       - called with the lock held after lines of the crypto are written
+     * @param sync           - {@link #SYNC_ALWAYS}, {@link #SYNC_BATCH} or {@link #SYNC_NEVER}
+     * @param intervalMillis - interval of flushes
+     * @param batchBytes     - queued bytes of a crypto which trigger flush before the interval ends
+     */
+    public PriceFileAppender(Function<String, Path> files, Function<String, Object> locks, Listener listener,
+                             String sync, long intervalMillis, int batchBytes) {
+        if (!SYNC_ALWAYS.equals(sync) && !SYNC_BATCH.equals(sync) && !SYNC_NEVER.equals(sync)) {
+            throw new IllegalArgumentException("Unknown ingest sync policy: " + sync);
+        }
+        this.files = files;
+        this.locks = locks;
+        this.listener = listener;
+        this.sync = sync;
+        this.batchBytes = batchBytes;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "price-appender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues lines to the end of the prices file, should be called with the crypto lock held,
+     * so lines are written in the order of the appends
+     *
+     * @param lines - complete lines, each ends with a new line
+     * @return completed when the lines are written and, if sync policy is not {@link #SYNC_NEVER}, forced to disk
+     */
+    public CompletableFuture<Void> append(String cryptoName, byte[] lines) {
+        CompletableFuture<Void> written = new CompletableFuture<>();
+        boolean full;
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("Appender of prices files is closed");
+            }
+            Batch batch = queued.computeIfAbsent(cryptoName, name -> new Batch());
+            batch.lines.write(lines, 0, lines.length);
+            batch.waiters.add(written);
+            full = batch.lines.size() >= batchBytes;
+        }
+        if (full) {
+            flusher.execute(() -> flush(cryptoName));
+        }
+        return written;
+    }
+
+    /**
+     * @return true if the request waits for its lines to be written, see {@link #SYNC_ALWAYS}
+     */
+    public boolean isSynchronous() {
+        return SYNC_ALWAYS.equals(sync);
+    }
+
+    /**
+     * @return true if lines of the crypto are queued and not written yet
+     */
+    public synchronized boolean isQueued(String cryptoName) {
+        return queued.containsKey(cryptoName);
+    }
+
+    /**
+     * Writes queued lines of all cryptos, called periodically on the flush thread
+     */
+    public void flush() {
+        List<String> cryptoNames;
+        synchronized (this) {
+            cryptoNames = new ArrayList<>(queued.keySet());
+        }
+        cryptoNames.forEach(this::flush);
+    }
+
+    /**
+     * Writes queued lines of the crypto, e.g. before its file is read again
+     */
+    public void flush(String cryptoName) {
+        Path file = files.apply(cryptoName);
+        Batch batch;
+        long start = System.nanoTime();
+        try {
+            synchronized (locks.apply(cryptoName)) {
+                synchronized (this) {
+                    batch = queued.remove(cryptoName);
+                }
+                if (Objects.isNull(batch)) {
+                    return;
+                }
+                write(cryptoName, file, batch);
+            }
+        } catch (IOException | RuntimeException e) {
+            LOG.error("Ingested lines of {} crypto are not written to {}: {}", cryptoName, file, e.getMessage(), e);
+            PriceMetrics.recordIngestFailure(cryptoName);
+            return;
+        }
+        if (!SYNC_NEVER.equals(sync)) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.force(false);
+            } catch (IOException e) {
+                LOG.error("Ingested lines of {} crypto are not forced to disk: {}", cryptoName, e.getMessage(), e);
+                PriceMetrics.recordIngestFailure(cryptoName);
+                batch.waiters.forEach(waiter -> waiter.completeExceptionally(e));
+                return;
+            }
+        }
+        batch.waiters.forEach(waiter -> waiter.complete(null));
+        PriceMetrics.recordIngestFlush(cryptoName, batch.lines.size(), System.nanoTime() - start);
+    }
+
+    /**
+     * Stops periodic flushes and writes lines queued so far
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * Appends the batch to the file, a new line is added first if the last line of the file is not complete
+     */
+    private void write(String cryptoName, Path file, Batch batch) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long from = channel.size();
+            long position = from;
+            if (position > 0 && !endsWithNewLine(channel, position)) {
+                position += writeFully(channel, ByteBuffer.wrap(new byte[]{'\n'}), position);
+            }
+            position += writeFully(channel, ByteBuffer.wrap(batch.lines.toByteArray()), position);
+            listener.written(cryptoName, file, from, position);
+        } catch (IOException | RuntimeException e) {
+            batch.waiters.forEach(waiter -> waiter.completeExceptionally(e));
+            throw e;
+        }
+    }
+
+    private static boolean endsWithNewLine(FileChannel channel, long size) throws IOException {
+        ByteBuffer last = ByteBuffer.allocate(1);
+        return channel.read(last, size - 1) == 1 && last.get(0) == '\n';
+    }
+
+    private static int writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int length = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+        return length;
+    }
+
+    /***
+     * Called on the flush thread with the crypto lock held, right after lines of the crypto are written
+     */
+    public interface Listener {
+
+        /**
+         * @param from - size of the file before the write
+         * @param size - size of the file after the write
+         */
+        void written(String cryptoName, Path file, long from, long size) throws IOException;
+    }
+
+    private static final class Batch {
+
+        private final ByteArrayOutputStream lines = new ByteArrayOutputStream();
+        private final List<CompletableFuture<Void>> waiters = new ArrayList<>();
+    }
+}
@@ -0,0 +1,336 @@
+package com.crypto.info.loader;
+
+import com.crypto.info.model.PriceFileState;
+import com.crypto.info.model.PriceSeries;
+import com.crypto.info.util.PriceUtil;
+import lombok.Data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/***
+ * Reads {crypto.name}_values.csv files through memory-mapped regions.
+ * Lines are scanned byte by byte, timestamp and price digits are accumulated
+ * straight into the series builder without intermediate Strings.
+ * Expected line format: timestamp,symbol,price
+ */
+public class PriceFileReader {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PriceFileReader.class);
+
+    private static final int DEFAULT_REGION_SIZE = 1 << 30;
+    private static final int MAX_REPORTED_LINES = 10;
+    private static final int CHECKSUM_LENGTH = 4096;
+    private static final long[] POWERS_OF_TEN = {
+        1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L
+    };
+
+    private final int regionSize;
+
+    public PriceFileReader() {
+        this(DEFAULT_REGION_SIZE);
+    }
+
+    PriceFileReader(int regionSize) {
+        this.regionSize = regionSize;
+    }
+
+    /**
+     * Reads the whole file, first line is a header, the last line is parsed even without line end
+     *
+     * @param file    - prices file
+     * @param builder - builder to add parsed points to
+     */
+    public ReadResult read(Path file, PriceSeries.Builder builder) throws IOException {
+        return read(file, 0, true, true, builder);
+    }
+
+    /**
+     * Reads complete lines of the file starting from the offset. Line without line end may be still written,
+     * it is not consumed and is read by the next read from the returned offset.
+     *
+     * @param file       - prices file
+     * @param offset     - position of the first byte to read, should be a start of the line
+     * @param skipHeader - if true, first line from the offset is skipped
+     * @param builder    - builder to add parsed points to
+     */
+    public ReadResult read(Path file, long offset, boolean skipHeader, PriceSeries.Builder builder) throws IOException {
+        return read(file, offset, skipHeader, false, builder);
+    }
+
+    /**
+     * @param completeLastLine - if true, the last line without line end is parsed as a complete one
+     */
+    private ReadResult read(Path file, long offset, boolean skipHeader, boolean completeLastLine,
+                            PriceSeries.Builder builder) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            LineParser parser = new LineParser(file, builder, skipHeader);
+            long position = offset;
+            while (position < size) {
+                long length = Math.min(regionSize, size - position);
+                MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                boolean last = position + length == size;
+                int consumed = parser.parse(region, position, last && completeLastLine);
+                if (consumed == 0 && last) {
+                    break;
+                }
+                if (consumed == 0) {
+                    throw new IOException("Line at offset " + position + " in " + file + " is longer than " + regionSize + " bytes");
+                }
+                position += consumed;
+            }
+            if (parser.malformed > MAX_REPORTED_LINES) {
+                LOG.warn("{} malformed lines skipped in {}", parser.malformed, file);
+            }
+            return new ReadResult(position, parser.rows, parser.malformed);
+        }
+    }
+
+    /**
+     * Captures loaded part of the file to check later if the file was only appended
+     *
+     * @param file          - prices file
+     * @param offset        - number of loaded bytes
+     * @param lastTimestamp - the newest loaded timestamp
+     */
+    public PriceFileState fileState(Path file, long offset, long lastTimestamp) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new PriceFileState(offset, lastTimestamp, headChecksum(channel, offset), tailChecksum(channel, offset));
+        }
+    }
+
+    /**
+     * @return true if the loaded part of the file is unchanged, so only the tail should be read
+     */
+    public boolean isAppendedTo(Path file, PriceFileState state) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long offset = state.getOffset();
+            return channel.size() >= offset
+                && headChecksum(channel, offset) == state.getHeadChecksum()
+                && tailChecksum(channel, offset) == state.getTailChecksum();
+        }
+    }
+
+    private static long headChecksum(FileChannel channel, long offset) throws IOException {
+        return checksum(channel, 0, (int) Math.min(CHECKSUM_LENGTH, offset));
+    }
+
+    private static long tailChecksum(FileChannel channel, long offset) throws IOException {
+        int length = (int) Math.min(CHECKSUM_LENGTH, offset);
+        return checksum(channel, offset - length, length);
+    }
+
+    private static long checksum(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                return -1;
+            }
+        }
+        buffer.flip();
+        CRC32 crc = new CRC32();
+        crc.update(buffer);
+        return crc.getValue();
+    }
+
+    /***
+     * Scans complete lines of the mapped region in a single pass
+     */
+    private static final class LineParser {
+
+        private final Path file;
+        private final PriceSeries.Builder builder;
+        private boolean skipLine;
+        private long rows;
+        private long malformed;
+
+        private int position;
+        private long timestamp;
+        private long price;
+
+        private LineParser(Path file, PriceSeries.Builder builder, boolean skipHeader) {
+            this.file = file;
+            this.builder = builder;
+            this.skipLine = skipHeader;
+        }
+
+        /**
+         * @return number of bytes consumed, only complete lines are consumed unless the region is the last one
+         */
+        private int parse(MappedByteBuffer region, long regionOffset, boolean last) {
+            int limit = region.limit();
+            int lineStart = 0;
+            while (lineStart < limit) {
+                int lineEnd = parseLine(region, lineStart, limit, regionOffset, last);
+                if (lineEnd < 0) {
+                    break;
+                }
+                lineStart = Math.min(lineEnd + 1, limit);
+            }
+            return lineStart;
+        }
+
+        /**
+         * @return position of the line end or -1 if the line is not complete in this region
+         */
+        private int parseLine(MappedByteBuffer region, int start, int limit, long regionOffset, boolean last) {
+            position = start;
+            boolean valid = !skipLine && readTimestamp(region, limit) && skipSymbol(region, limit) && readPrice(region, limit);
+            int end = position;
+            while (end < limit && region.get(end) != '\n') {
+                end++;
+            }
+            if (end == limit && !last) {
+                return -1;
+            }
+            if (skipLine) {
+                skipLine = false;
+            } else if (valid) {
+                builder.add(timestamp, price);
+                rows++;
+            } else if (!isBlank(region, start, end)) {
+                reportMalformed(regionOffset + start);
+            }
+            return end;
+        }
+
+        private boolean readTimestamp(MappedByteBuffer region, int limit) {
+            long value = 0;
+            int digits = 0;
+            byte b;
+            while (position < limit && (b = region.get(position)) != ',') {
+                int digit = b - '0';
+                if (digit < 0 || digit > 9 || ++digits > 18) {
+                    return false;
+                }
+                value = value * 10 + digit;
+                position++;
+            }
+            if (digits == 0 || position == limit) {
+                return false;
+            }
+            position++;
+            timestamp = value;
+            return true;
+        }
+
+        private boolean skipSymbol(MappedByteBuffer region, int limit) {
+            // symbol column is defined by the file name
+            byte b;
+            while (position < limit && (b = region.get(position)) != ',') {
+                if (b == '\n') {
+                    return false;
+                }
+                position++;
+            }
+            if (position == limit) {
+                return false;
+            }
+            position++;
+            return true;
+        }
+
+        private boolean readPrice(MappedByteBuffer region, int limit) {
+            int start = position;
+            long integer = 0;
+            long fraction = 0;
+            int fractionDigits = 0;
+            boolean point = false;
+            boolean digits = false;
+            boolean exceedsScale = false;
+            byte b = 0;
+            for (; position < limit && (b = region.get(position)) != '\n' && b != '\r' && b != ' '; position++) {
+                if (b == '.' && !point) {
+                    point = true;
+                    continue;
+                }
+                int digit = b - '0';
+                if (digit < 0 || digit > 9) {
+                    return false;
+                }
+                digits = true;
+                if (!point) {
+                    if (integer > Long.MAX_VALUE / POWERS_OF_TEN[PriceUtil.PRICE_SCALE] / 10) {
+                        return false;
+                    }
+                    integer = integer * 10 + digit;
+                } else if (fractionDigits < PriceUtil.PRICE_SCALE) {
+                    fraction = fraction * 10 + digit;
+                    fractionDigits++;
+                } else {
+                    exceedsScale = true;
+                }
+            }
+            int end = position;
+            while (position < limit && ((b = region.get(position)) == '\r' || b == ' ')) {
+                position++;
+            }
+            if (!digits || (position < limit && b != '\n')) {
+                return false;
+            }
+            if (exceedsScale) {
+                return parseLongFraction(region, start, end);
+            }
+            price = integer * POWERS_OF_TEN[PriceUtil.PRICE_SCALE]
+                + fraction * POWERS_OF_TEN[PriceUtil.PRICE_SCALE - fractionDigits];
+            return true;
+        }
+
+        /**
+         * Rare case of price with more fraction digits than the fixed-point scale keeps,
+         * falls back to rounding of {@link PriceUtil#parsePrice(String)}
+         */
+        private boolean parseLongFraction(MappedByteBuffer region, int start, int end) {
+            byte[] text = new byte[end - start];
+            for (int i = start; i < end; i++) {
+                text[i - start] = region.get(i);
+            }
+            try {
+                price = PriceUtil.parsePrice(new String(text, StandardCharsets.US_ASCII));
+                return true;
+            } catch (NumberFormatException | ArithmeticException e) {
+                return false;
+            }
+        }
+
+        private boolean isBlank(MappedByteBuffer region, int start, int end) {
+            for (int i = start; i < end; i++) {
+                byte b = region.get(i);
+                if (b != '\r' && b != ' ') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void reportMalformed(long offset) {
+            malformed++;
+            if (malformed <= MAX_REPORTED_LINES) {
+                LOG.warn("Malformed line skipped in {} at offset {}", file, offset);
+            }
+        }
+    }
+
+    /***
+     * Result of reading prices file
+     */
+    @Data
+    public static final class ReadResult {
+
+        /**
+         * Position right after the last consumed byte
+         */
+        private final long offset;
+        private final long rows;
+        private final long malformed;
+    }
+}
@@ -0,0 +1,153 @@
+package com.crypto.info.loader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/***
+ * Watches prices folder and notifies about cryptos which files may have changed.
+ * Uses {@link WatchService} when the folder supports it, otherwise polls all files with fixed interval.
+ * Notifications are delivered on a single background thread.
+ */
+public class PriceFilesWatcher implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PriceFilesWatcher.class);
+
+    public static final String MODE_WATCH = "watch";
+    public static final String MODE_POLL = "poll";
+
+    private final Path folder;
+    private final String fileNameSuffix;
+    private final Set<String> cryptos;
+    private final Consumer<String> listener;
+    private final long pollIntervalMillis;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "price-files-watcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile WatchService watchService;
+
+    /**
+     * @param folder             - prices folder
+     * @param fileNameSuffix     - suffix of the prices file after the crypto name
+     * @param cryptos            - cryptos to watch
+     * @param listener           - called with crypto name when its file may have changed
+     * @param pollIntervalMillis - interval of polling fallback
+     */
+    public PriceFilesWatcher(Path folder, String fileNameSuffix, Collection<String> cryptos,
+                             Consumer<String> listener, long pollIntervalMillis) {
+        this.folder = folder;
+        this.fileNameSuffix = fileNameSuffix;
+        this.cryptos = new LinkedHashSet<>(cryptos);
+        this.listener = listener;
+        this.pollIntervalMillis = pollIntervalMillis;
+    }
+
+    /**
+     * Starts watching in requested mode, falls back to polling if watch service is not available
+     *
+     * @param mode - {@link #MODE_WATCH} or {@link #MODE_POLL}
+     */
+    public void start(String mode) {
+        if (MODE_WATCH.equalsIgnoreCase(mode)) {
+            try {
+                watchService = FileSystems.getDefault().newWatchService();
+                folder.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+                executor.execute(this::watch);
+                LOG.info("Watching prices folder {}", folder.toAbsolutePath());
+                return;
+            } catch (IOException | UnsupportedOperationException e) {
+                LOG.warn("Prices folder {} can't be watched, polling every {} ms: {}", folder, pollIntervalMillis, e.getMessage());
+                closeWatchService();
+            }
+        }
+        executor.scheduleWithFixedDelay(this::poll, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+        LOG.info("Polling prices folder {} every {} ms", folder.toAbsolutePath(), pollIntervalMillis);
+    }
+
+    private void watch() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.take();
+                Set<String> changed = new LinkedHashSet<>();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        changed.addAll(cryptos);
+                        continue;
+                    }
+                    String cryptoName = cryptoName((Path) event.context());
+                    if (Objects.nonNull(cryptoName)) {
+                        changed.add(cryptoName);
+                    }
+                }
+                changed.forEach(this::notifyListener);
+                if (!key.reset()) {
+                    LOG.warn("Prices folder {} is no longer watched", folder);
+                    executor.scheduleWithFixedDelay(this::poll, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            LOG.debug("Watch service is closed");
+        }
+    }
+
+    private void poll() {
+        cryptos.forEach(this::notifyListener);
+    }
+
+    private void notifyListener(String cryptoName) {
+        try {
+            listener.accept(cryptoName);
+        } catch (RuntimeException e) {
+            LOG.error("Failed to refresh {} crypto: {}", cryptoName, e.getMessage(), e);
+        }
+    }
+
+    private String cryptoName(Path file) {
+        String fileName = file.getFileName().toString();
+        if (!fileName.endsWith(fileNameSuffix)) {
+            return null;
+        }
+        String cryptoName = fileName.substring(0, fileName.length() - fileNameSuffix.length());
+        return cryptos.contains(cryptoName) ? cryptoName : null;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        closeWatchService();
+    }
+
+    private void closeWatchService() {
+        if (Objects.isNull(watchService)) {
+            return;
+        }
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            LOG.warn(e.getMessage(), e);
+        }
+        watchService = null;
+    }
+}
@@ -0,0 +1,186 @@
+package com.crypto.info.loader;
+
+import com.crypto.info.model.PriceColumns;
+import com.crypto.info.model.PriceFileState;
+import com.crypto.info.model.PriceSeries;
+import com.crypto.info.model.PriceStorage;
+import lombok.Data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+/***
+ * Binary copy of a loaded series, {crypto.name}_values.snapshot, so restart does not parse the whole prices file again.
+ * Layout is little-endian: header, then column of timestamps and column of prices, both of 8-byte values.
+ * Header keeps the loaded part of the prices file and its modification time, so only bytes appended
+ * after the snapshot are parsed. CRC32 of the header and columns detects a corrupted snapshot.
+ * Snapshot is replaced by a new file and never written in place, so mapping of the previous one stays readable.
+ */
+public class PriceSnapshot {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PriceSnapshot.class);
+
+    public static final String FILE_SUFFIX = "_values.snapshot";
+
+    private static final int MAGIC = 0x4E535043;
+    private static final int FORMAT_VERSION = 1;
+    private static final int CHECKSUM_POSITION = 56;
+    private static final int HEADER_SIZE = 64;
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+    private final Path folder;
+
+    /**
+     * @param folder - folder of the snapshots, created on the first write
+     */
+    public PriceSnapshot(Path folder) {
+        this.folder = folder;
+    }
+
+    /**
+     * Writes snapshot to a temporary file and moves it over the previous one,
+     * so readers see either the old or the new snapshot
+     *
+     * @param series         - loaded series
+     * @param state          - loaded part of the prices file
+     * @param sourceModified - modification time of the prices file, epoch millis
+     */
+    public void write(String cryptoName, PriceSeries series, PriceFileState state, long sourceModified) throws IOException {
+        Files.createDirectories(folder);
+        Path temporary = Files.createTempFile(folder, cryptoName, ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                CRC32 crc = new CRC32();
+                ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                buffer.putInt(MAGIC)
+                    .putInt(FORMAT_VERSION)
+                    .putLong(series.size())
+                    .putLong(state.getOffset())
+                    .putLong(state.getLastTimestamp())
+                    .putLong(state.getHeadChecksum())
+                    .putLong(state.getTailChecksum())
+                    .putLong(sourceModified);
+                crc.update(buffer.duplicate().flip());
+                buffer.putLong(0);
+                for (int i = 0; i < series.size(); i++) {
+                    put(channel, crc, buffer, series.timestamp(i));
+                }
+                for (int i = 0; i < series.size(); i++) {
+                    put(channel, crc, buffer, series.price(i));
+                }
+                flush(channel, crc, buffer);
+                ByteBuffer checksum = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).putLong(crc.getValue());
+                checksum.flip();
+                channel.write(checksum, CHECKSUM_POSITION);
+                channel.force(false);
+            }
+            Files.move(temporary, file(cryptoName), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        LOG.debug("Snapshot of {} is written, {} points, {} bytes of prices file", cryptoName, series.size(), state.getOffset());
+    }
+
+    /**
+     * Maps the snapshot, mapped storage uses the mapped columns directly, other storages get a copy of them.
+     * Checksum is verified by one sequential pass over the mapping before the series is used: it reads at disk speed
+     * the pages the series reads anyway, far less than parsing the prices file, and a corrupted snapshot
+     * is never published.
+     *
+     * @param storage - storage of the read series columns
+     * @return snapshot content, empty if there is no snapshot or it is corrupted or of another format
+     */
+    public Optional<Content> read(String cryptoName, PriceStorage storage) throws IOException {
+        Path file = file(cryptoName);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                LOG.warn("Snapshot {} of {} bytes is ignored", file, size);
+                return Optional.empty();
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+            long rows = buffer.getLong(8);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION
+                || rows < 0 || rows > size || HEADER_SIZE + rows * 2 * Long.BYTES != size) {
+                LOG.warn("Snapshot {} has unknown format", file);
+                return Optional.empty();
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate().limit(CHECKSUM_POSITION).position(0));
+            crc.update(buffer.duplicate().position(HEADER_SIZE));
+            if (crc.getValue() != buffer.getLong(CHECKSUM_POSITION)) {
+                LOG.warn("Snapshot {} is corrupted", file);
+                return Optional.empty();
+            }
+            LongBuffer columns = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN).position(HEADER_SIZE).asLongBuffer();
+            LongBuffer timestamps = columns.duplicate().limit((int) rows).slice();
+            LongBuffer prices = columns.duplicate().position((int) rows).slice();
+            PriceColumns series;
+            if (PriceStorage.MAPPED.equals(storage.getMode())) {
+                series = storage.wrap(timestamps, prices);
+            } else {
+                series = storage.allocate((int) rows);
+                series.load(timestamps, prices);
+            }
+            PriceFileState state = new PriceFileState(buffer.getLong(16), buffer.getLong(24), buffer.getLong(32), buffer.getLong(40));
+            return Optional.of(new Content(PriceSeries.of(series, (int) rows), state, buffer.getLong(48)));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+    }
+
+    public Path file(String cryptoName) {
+        return folder.resolve(cryptoName + FILE_SUFFIX);
+    }
+
+    private static void put(FileChannel channel, CRC32 crc, ByteBuffer buffer, long value) throws IOException {
+        if (buffer.remaining() < Long.BYTES) {
+            flush(channel, crc, buffer);
+        }
+        buffer.putLong(value);
+    }
+
+    /**
+     * Writes filled part of the buffer, the header is not added to the checksum again
+     */
+    private static void flush(FileChannel channel, CRC32 crc, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        ByteBuffer columns = buffer.duplicate();
+        if (channel.position() == 0) {
+            columns.position(Math.min(HEADER_SIZE, columns.limit()));
+        }
+        crc.update(columns);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /***
+     * Series and the loaded part of the prices file read from the snapshot
+     */
+    @Data
+    public static final class Content {
+
+        private final PriceSeries series;
+        private final PriceFileState fileState;
+        /**
+         * Modification time of the prices file when the snapshot was written, epoch millis
+         */
+        private final long sourceModified;
+    }
+}
@@ -0,0 +1,191 @@
+package com.crypto.info.metrics;
+
+import com.crypto.info.model.PriceStorage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/***
+ * Meters of price files loading. Meters are registered in the global registry,
+ * which is backed by the registries of the application (Prometheus) when it is running.
+ * Everything here is called on load, refresh, ingest and price updates, request path only reads published data.
+ */
+public final class PriceMetrics {
+
+    public static final String LOAD_FULL = "full";
+    public static final String LOAD_APPEND = "append";
+    public static final String LOAD_SNAPSHOT = "snapshot";
+
+    private static final MeterRegistry REGISTRY = Metrics.globalRegistry;
+
+    private PriceMetrics() {
+    }
+
+    /**
+     * @param type - {@link #LOAD_FULL}, {@link #LOAD_APPEND} or {@link #LOAD_SNAPSHOT}
+     */
+    public static void recordLoad(String cryptoName, String type, long nanos) {
+        Timer.builder("prices.load")
+            .description("Load of the prices file")
+            .tags("crypto", cryptoName, "type", type)
+            .publishPercentileHistogram()
+            .register(REGISTRY)
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public static void recordLoadFailure(String cryptoName) {
+        Counter.builder("prices.load.failures")
+            .tags("crypto", cryptoName)
+            .register(REGISTRY)
+            .increment();
+    }
+
+    /**
+     * @param bytes - bytes of the file read by the load
+     * @param rows  - rows parsed by the load
+     */
+    public static void recordParsed(String cryptoName, long bytes, long rows) {
+        DistributionSummary.builder("prices.load.bytes")
+            .baseUnit("bytes")
+            .tags("crypto", cryptoName)
+            .register(REGISTRY)
+            .record(bytes);
+        DistributionSummary.builder("prices.load.rows")
+            .baseUnit("rows")
+            .tags("crypto", cryptoName)
+            .register(REGISTRY)
+            .record(rows);
+    }
+
+    /**
+     * @param reloaded - true if the file is changed and the crypto is loaded again
+     */
+    public static void recordRefresh(String cryptoName, boolean reloaded) {
+        Counter.builder("prices.refresh")
+            .description("Checks of the prices file triggered by the watcher")
+            .tags("crypto", cryptoName, "result", reloaded ? "reloaded" : "up_to_date")
+            .register(REGISTRY)
+            .increment();
+    }
+
+    /**
+     * Request or refresh waits for the load started by another thread
+     */
+    public static void recordJoinedLoad(String cryptoName) {
+        Counter.builder("prices.load.joined")
+            .tags("crypto", cryptoName)
+            .register(REGISTRY)
+            .increment();
+    }
+
+    public static void recordLoadTimeout(String cryptoName) {
+        Counter.builder("prices.load.timeouts")
+            .tags("crypto", cryptoName)
+            .register(REGISTRY)
+            .increment();
+    }
+
+    /**
+     * @param accepted - ingested ticks added to the series
+     * @param rejected - ingested ticks dropped as out of order or duplicate
+     */
+    public static void recordIngest(String cryptoName, int accepted, int rejected) {
+        Counter.builder("prices.ingest.ticks")
+            .tags("crypto", cryptoName, "result", "accepted")
+            .register(REGISTRY)
+            .increment(accepted);
+        Counter.builder("prices.ingest.ticks")
+            .tags("crypto", cryptoName, "result", "rejected")
+            .register(REGISTRY)
+            .increment(rejected);
+    }
+
+    /**
+     * @param bytes - bytes of ingested lines written to the prices file with one write
+     */
+    public static void recordIngestFlush(String cryptoName, long bytes, long nanos) {
+        Timer.builder("prices.ingest.flush")
+            .description("Write of a batch of ingested lines, sync included")
+            .tags("crypto", cryptoName)
+            .register(REGISTRY)
+            .record(nanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("prices.ingest.flush.bytes")
+            .baseUnit("bytes")
+            .tags("crypto", cryptoName)
+            .register(REGISTRY)
+            .record(bytes);
+    }
+
+    public static void recordIngestFailure(String cryptoName) {
+        Counter.builder("prices.ingest.failures")
+            .tags("crypto", cryptoName)
+            .register(REGISTRY)
+            .increment();
+    }
+
+    /**
+     * @param dropped - ticks not sent to a slow subscriber of price updates
+     */
+    public static void recordUpdateTicksDropped(String cryptoName, int dropped) {
+        if (dropped > 0) {
+            Counter.builder("prices.updates.dropped.ticks")
+                .description("Ticks dropped from updates of subscribers reading slower than updates come")
+                .tags("crypto", cryptoName)
+                .register(REGISTRY)
+                .increment(dropped);
+        }
+    }
+
+    /**
+     * Registers gauge of the current subscriptions to price updates
+     */
+    public static <T> void registerUpdateSubscriptions(T source, ToDoubleFunction<T> subscriptions) {
+        Gauge.builder("prices.updates.subscriptions", source, subscriptions)
+            .strongReference(true)
+            .register(REGISTRY);
+    }
+
+    /**
+     * Registers meters of the cache of loaded cryptos
+     */
+    public static void bindCache(MeterBinder cache) {
+        cache.bindTo(REGISTRY);
+    }
+
+    /**
+     * Registers gauges of the off-heap series columns and of the released direct columns which are not collected yet,
+     * registration again is ignored
+     */
+    public static void registerOffHeapBytes() {
+        Gauge.builder("prices.offheap.bytes", PriceStorage.class, type -> PriceStorage.offHeapBytes())
+            .description("Off-heap memory of price series columns")
+            .baseUnit("bytes")
+            .strongReference(true)
+            .register(REGISTRY);
+        Gauge.builder("prices.offheap.released.bytes", PriceStorage.class, type -> PriceStorage.releasedDirectBytes())
+            .description("Direct memory of released price series columns which are not collected yet")
+            .baseUnit("bytes")
+            .strongReference(true)
+            .register(REGISTRY);
+    }
+
+    /**
+     * Registers gauge of the loaded series size, registration of the same crypto again is ignored
+     *
+     * @param source - object the size is read from, it is kept by strong reference
+     */
+    public static <T> void registerSeriesSize(String cryptoName, T source, ToDoubleFunction<T> size) {
+        Gauge.builder("prices.series.size", source, size)
+            .description("Number of loaded price points")
+            .tags("crypto", cryptoName)
+            .strongReference(true)
+            .register(REGISTRY);
+    }
+}
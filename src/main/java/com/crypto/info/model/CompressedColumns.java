@@ -0,0 +1,377 @@
+package com.crypto.info.model;
+
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/***
+ * Columns compressed in blocks of {@link RangeIndex#BLOCK_SIZE} points, like Gorilla encoding of time series:
+ * timestamps are written as variable length delta of delta and prices as variable length XOR with the previous price.
+ * Header of every block keeps its first and last point, min and max price and positions of the extremes,
+ * so extremes of whole blocks and timestamp search between blocks need no decoding.
+ * Points can only be appended in order. Reader decodes a block incrementally into a thread-local cursor
+ * and never past the point it reads, so bits of the points appended after its series are never decoded.
+ */
+final class CompressedColumns extends PriceColumns {
+
+    private static final int BLOCK_SHIFT = RangeIndex.BLOCK_SHIFT;
+    private static final int BLOCK_SIZE = RangeIndex.BLOCK_SIZE;
+    private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+    private static final AtomicLong IDS = new AtomicLong();
+    private static final ThreadLocal<Cursor> CURSORS = ThreadLocal.withInitial(Cursor::new);
+
+    /**
+     * Identifies the columns in thread-local cursors without keeping them reachable
+     */
+    private final long id = IDS.incrementAndGet();
+    private final int capacity;
+    private final long[] bitOffsets;
+    private final long[] firstTimestamps;
+    private final long[] lastTimestamps;
+    private final long[] firstPrices;
+    private final long[] lastPrices;
+    private final long[] minPrices;
+    private final long[] maxPrices;
+    private final byte[] minPositions;
+    private final byte[] maxPositions;
+    /**
+     * Encoded points, replaced by a longer copy when full
+     */
+    private volatile long[] words;
+    private int size;
+    private long bitPosition;
+    private long previousTimestamp;
+    private long previousDelta;
+    private long previousPrice;
+    private int previousLeading;
+    private int previousTrailing;
+
+    CompressedColumns(PriceStorage storage, int capacity) {
+        super(storage);
+        this.capacity = capacity;
+        int blocks = (capacity + BLOCK_MASK) >> BLOCK_SHIFT;
+        bitOffsets = new long[blocks];
+        firstTimestamps = new long[blocks];
+        lastTimestamps = new long[blocks];
+        firstPrices = new long[blocks];
+        lastPrices = new long[blocks];
+        minPrices = new long[blocks];
+        maxPrices = new long[blocks];
+        minPositions = new byte[blocks];
+        maxPositions = new byte[blocks];
+        words = new long[Math.max(2, capacity >> 3)];
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public long timestamp(int index) {
+        int block = index >> BLOCK_SHIFT;
+        int position = index & BLOCK_MASK;
+        if (position == 0) {
+            return firstTimestamps[block];
+        }
+        if (position == BLOCK_MASK) {
+            return lastTimestamps[block];
+        }
+        return decode(index).timestamps[position];
+    }
+
+    @Override
+    public long price(int index) {
+        int block = index >> BLOCK_SHIFT;
+        int position = index & BLOCK_MASK;
+        if (position == 0) {
+            return firstPrices[block];
+        }
+        if (position == BLOCK_MASK) {
+            return lastPrices[block];
+        }
+        return decode(index).prices[position];
+    }
+
+    /**
+     * Appends the point, index should be the number of points in the columns
+     */
+    @Override
+    void set(int index, long timestamp, long price) {
+        if (index != size) {
+            throw new IllegalStateException("Compressed columns of " + size + " points can't set point " + index);
+        }
+        if (size == capacity) {
+            throw new IndexOutOfBoundsException("Compressed columns are full: " + capacity);
+        }
+        int block = size >> BLOCK_SHIFT;
+        int position = size & BLOCK_MASK;
+        if (position == 0) {
+            bitOffsets[block] = bitPosition;
+            firstTimestamps[block] = timestamp;
+            firstPrices[block] = price;
+            minPrices[block] = price;
+            maxPrices[block] = price;
+            previousDelta = 0;
+            previousLeading = -1;
+        } else {
+            writeTimestamp(timestamp);
+            writePrice(price);
+            if (price < minPrices[block]) {
+                minPrices[block] = price;
+                minPositions[block] = (byte) position;
+            }
+            if (price > maxPrices[block]) {
+                maxPrices[block] = price;
+                maxPositions[block] = (byte) position;
+            }
+        }
+        lastTimestamps[block] = timestamp;
+        lastPrices[block] = price;
+        previousTimestamp = timestamp;
+        previousPrice = price;
+        size++;
+    }
+
+    @Override
+    public void load(LongBuffer timestamps, LongBuffer prices) {
+        for (int i = 0; i < timestamps.remaining(); i++) {
+            set(size, timestamps.get(timestamps.position() + i), prices.get(prices.position() + i));
+        }
+    }
+
+    /**
+     * Whole blocks are answered from their headers, only the boundary blocks of the range are decoded
+     */
+    @Override
+    int indexOfExtreme(int from, int to, boolean min) {
+        int result = -1;
+        long best = 0;
+        int i = from;
+        while (i < to) {
+            int block = i >> BLOCK_SHIFT;
+            int blockEnd = Math.min(to, (block + 1) << BLOCK_SHIFT);
+            if ((i & BLOCK_MASK) == 0 && blockEnd - i == BLOCK_SIZE) {
+                long price = min ? minPrices[block] : maxPrices[block];
+                if (result < 0 || (min ? price < best : price > best)) {
+                    result = i + (min ? minPositions[block] : maxPositions[block]);
+                    best = price;
+                }
+            } else {
+                long[] prices = decode(blockEnd - 1).prices;
+                for (int j = i; j < blockEnd; j++) {
+                    long price = prices[j & BLOCK_MASK];
+                    if (result < 0 || (min ? price < best : price > best)) {
+                        result = j;
+                        best = price;
+                    }
+                }
+            }
+            i = blockEnd;
+        }
+        return result;
+    }
+
+    /**
+     * Finds the block by first timestamps of the blocks, only that block is decoded
+     */
+    @Override
+    int bound(long timestamp, int size, boolean upper) {
+        int blocks = (size + BLOCK_MASK) >> BLOCK_SHIFT;
+        int low = 0;
+        int high = blocks;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (upper ? firstTimestamps[middle] <= timestamp : firstTimestamps[middle] < timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        if (low == 0) {
+            return 0;
+        }
+        int first = (low - 1) << BLOCK_SHIFT;
+        int end = Math.min(size, low << BLOCK_SHIFT);
+        long[] timestamps = decode(end - 1).timestamps;
+        for (int i = first + 1; i < end; i++) {
+            long value = timestamps[i & BLOCK_MASK];
+            if (upper ? value > timestamp : value >= timestamp) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * @return size of the encoded points and block headers in bytes
+     */
+    @Override
+    long estimatedBytes() {
+        return (long) words.length * Long.BYTES + (long) bitOffsets.length * (7 * Long.BYTES + 2);
+    }
+
+    /**
+     * @return cursor of the current thread with points of the block decoded at least up to the index
+     */
+    private Cursor decode(int index) {
+        int block = index >> BLOCK_SHIFT;
+        int position = index & BLOCK_MASK;
+        Cursor cursor = CURSORS.get();
+        if (cursor.columnsId != id || cursor.block != block) {
+            cursor.columnsId = id;
+            cursor.block = block;
+            cursor.count = 1;
+            cursor.timestamps[0] = firstTimestamps[block];
+            cursor.prices[0] = firstPrices[block];
+            cursor.bitPosition = bitOffsets[block];
+            cursor.delta = 0;
+            cursor.leading = -1;
+        }
+        if (cursor.count > position) {
+            return cursor;
+        }
+        long[] buffer = words;
+        while (cursor.count <= position) {
+            cursor.decodeNext(buffer);
+        }
+        return cursor;
+    }
+
+    private void writeTimestamp(long timestamp) {
+        long delta = timestamp - previousTimestamp;
+        long deltaOfDelta = delta - previousDelta;
+        previousDelta = delta;
+        if (deltaOfDelta == 0) {
+            write(0, 1);
+        } else if (fits(deltaOfDelta, 7)) {
+            write(0b10, 2);
+            write(deltaOfDelta, 7);
+        } else if (fits(deltaOfDelta, 12)) {
+            write(0b110, 3);
+            write(deltaOfDelta, 12);
+        } else if (fits(deltaOfDelta, 20)) {
+            write(0b1110, 4);
+            write(deltaOfDelta, 20);
+        } else if (fits(deltaOfDelta, 32)) {
+            write(0b11110, 5);
+            write(deltaOfDelta, 32);
+        } else {
+            write(0b11111, 5);
+            write(deltaOfDelta, 64);
+        }
+    }
+
+    private void writePrice(long price) {
+        long xor = price ^ previousPrice;
+        if (xor == 0) {
+            write(0, 1);
+            return;
+        }
+        int leading = Long.numberOfLeadingZeros(xor);
+        int trailing = Long.numberOfTrailingZeros(xor);
+        if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+            write(0b10, 2);
+            write(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+            return;
+        }
+        int length = 64 - leading - trailing;
+        write(0b11, 2);
+        write(leading, 6);
+        write(length - 1, 6);
+        write(xor >>> trailing, length);
+        previousLeading = leading;
+        previousTrailing = trailing;
+    }
+
+    /**
+     * Writes the lowest bits of the value, the highest of them first
+     */
+    private void write(long value, int bits) {
+        long[] buffer = words;
+        int last = (int) ((bitPosition + bits - 1) >>> 6);
+        if (last >= buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(last + 1, buffer.length + (buffer.length >> 2)));
+            words = buffer;
+        }
+        int word = (int) (bitPosition >>> 6);
+        int free = 64 - (int) (bitPosition & 63);
+        long masked = bits == 64 ? value : value & ((1L << bits) - 1);
+        if (bits <= free) {
+            buffer[word] |= masked << (free - bits);
+        } else {
+            buffer[word] |= masked >>> (bits - free);
+            buffer[word + 1] |= masked << (64 - bits + free);
+        }
+        bitPosition += bits;
+    }
+
+    /**
+     * @return true if the value fits the signed number of bits
+     */
+    private static boolean fits(long value, int bits) {
+        return value >= -(1L << (bits - 1)) && value < (1L << (bits - 1));
+    }
+
+    /***
+     * Points of one block decoded by the current thread, decoding continues from the last decoded point
+     */
+    private static final class Cursor {
+
+        private final long[] timestamps = new long[BLOCK_SIZE];
+        private final long[] prices = new long[BLOCK_SIZE];
+        private long columnsId = -1;
+        private int block;
+        private int count;
+        private long bitPosition;
+        private long delta;
+        private int leading;
+        private int trailing;
+
+        private void decodeNext(long[] words) {
+            long deltaOfDelta;
+            if (read(words, 1) == 0) {
+                deltaOfDelta = 0;
+            } else if (read(words, 1) == 0) {
+                deltaOfDelta = signed(read(words, 7), 7);
+            } else if (read(words, 1) == 0) {
+                deltaOfDelta = signed(read(words, 12), 12);
+            } else if (read(words, 1) == 0) {
+                deltaOfDelta = signed(read(words, 20), 20);
+            } else if (read(words, 1) == 0) {
+                deltaOfDelta = signed(read(words, 32), 32);
+            } else {
+                deltaOfDelta = read(words, 64);
+            }
+            delta += deltaOfDelta;
+            timestamps[count] = timestamps[count - 1] + delta;
+            long xor = 0;
+            if (read(words, 1) == 1) {
+                if (read(words, 1) == 1) {
+                    leading = (int) read(words, 6);
+                    int length = (int) read(words, 6) + 1;
+                    trailing = 64 - leading - length;
+                }
+                xor = read(words, 64 - leading - trailing) << trailing;
+            }
+            prices[count] = prices[count - 1] ^ xor;
+            count++;
+        }
+
+        private long read(long[] words, int bits) {
+            int word = (int) (bitPosition >>> 6);
+            int offset = (int) (bitPosition & 63);
+            int free = 64 - offset;
+            long value = (words[word] << offset) >>> (64 - bits);
+            if (bits > free) {
+                value |= words[word + 1] >>> (64 - bits + free);
+            }
+            bitPosition += bits;
+            return value;
+        }
+
+        private static long signed(long value, int bits) {
+            return (value << (64 - bits)) >> (64 - bits);
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package com.crypto.info.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 @Data
 @JsonInclude(JsonInclude.Include.NON_EMPTY)
@@ -12,7 +17,24 @@ public class Crypto {
 
     private String name;
     private Instant lastUploadFileDate;
-    private List<CryptoData> data;
+    @JsonIgnore
+    private PriceSeries series = PriceSeries.empty();
+    @JsonIgnore
+    private PriceFileState fileState;
+    /**
+     * Increases on every load of the crypto, the same version always means the same data
+     */
+    @JsonIgnore
+    private long version;
+    /**
+     * Series has ingested points which are not written to the prices file yet, so it can't be saved to a snapshot
+     */
+    @JsonIgnore
+    private boolean unwritten;
+    @JsonIgnore
+    private Map<RollupResolution, PriceRollup> rollups = new EnumMap<>(RollupResolution.class);
+    @JsonIgnore
+    private PriceStatistics statistics = PriceStatistics.build(PriceSeries.empty());
 
     public Crypto() {
     }
@@ -20,4 +42,38 @@ public class Crypto {
     public Crypto(String name) {
         this.name = name;
     }
+
+    /**
+     * @return rollup of the series for requested resolution, null if it is not built
+     */
+    public PriceRollup getRollup(RollupResolution resolution) {
+        return rollups.get(resolution);
+    }
+
+    /**
+     * @return approximate heap size of the series, rollups and statistics in bytes
+     */
+    public long estimatedBytes() {
+        long bytes = Objects.isNull(series) ? 0 : series.estimatedBytes();
+        bytes += Objects.isNull(statistics) ? 0 : statistics.estimatedBytes();
+        for (PriceRollup rollup : rollups.values()) {
+            bytes += rollup.estimatedBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Builds response rows from the price series. Used only for serialization,
+     * calculations should work with {@link #getSeries()} directly.
+     */
+    public List<CryptoData> getData() {
+        if (Objects.isNull(series)) {
+            return new ArrayList<>();
+        }
+        List<CryptoData> data = new ArrayList<>(series.size());
+        for (int i = 0; i < series.size(); i++) {
+            data.add(series.toCryptoData(i, null));
+        }
+        return data;
+    }
 }
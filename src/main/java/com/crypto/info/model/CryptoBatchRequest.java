@@ -0,0 +1,22 @@
+package com.crypto.info.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CryptoBatchRequest {
+
+    /**
+     * Requested cryptos, all supported cryptos if empty
+     */
+    private List<String> cryptos;
+    /**
+     * Requested periods of time, the whole history if empty
+     */
+    private List<CryptoWindow> windows;
+    /**
+     * Calculate normalized range of each window
+     */
+    private boolean normalizedRange;
+}
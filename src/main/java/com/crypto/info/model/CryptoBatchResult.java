@@ -0,0 +1,22 @@
+package com.crypto.info.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class CryptoBatchResult {
+
+    private String name;
+    private List<CryptoWindowResult> windows;
+
+    public CryptoBatchResult() {
+    }
+
+    public CryptoBatchResult(String name, List<CryptoWindowResult> windows) {
+        this.name = name;
+        this.windows = windows;
+    }
+}
@@ -0,0 +1,42 @@
+package com.crypto.info.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+
+/***
+ * Correlation matrix of returns of several cryptos on a common grid of rollup buckets
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class CryptoCorrelation {
+
+    private RollupResolution resolution;
+    /**
+     * Starts of the first and the last bucket of the grid
+     */
+    private Instant oldest;
+    private Instant newest;
+    /**
+     * Number of returns of every crypto, one less than the number of grid points
+     */
+    private int returns;
+    /**
+     * Cryptos in order of the matrix rows and columns
+     */
+    private List<String> cryptos;
+    /**
+     * Pearson correlation of log returns of each pair, null if returns of the crypto are constant or too few
+     */
+    private List<List<Double>> correlations;
+
+    public CryptoCorrelation() {
+    }
+
+    public CryptoCorrelation(RollupResolution resolution, List<String> cryptos) {
+        this.resolution = resolution;
+        this.cryptos = cryptos;
+    }
+}
@@ -0,0 +1,28 @@
+package com.crypto.info.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class CryptoIngestResult {
+
+    private String name;
+    /**
+     * Ticks added to the series
+     */
+    private int accepted;
+    /**
+     * Ticks dropped as out of order or duplicate
+     */
+    private int rejected;
+
+    public CryptoIngestResult() {
+    }
+
+    public CryptoIngestResult(String name, int accepted, int rejected) {
+        this.name = name;
+        this.accepted = accepted;
+        this.rejected = rejected;
+    }
+}
@@ -1,20 +1,45 @@
 package com.crypto.info.model;
 
+import com.crypto.info.util.PriceUtil;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 
+import java.util.Objects;
+
 @Data
 @JsonInclude(JsonInclude.Include.NON_EMPTY)
 public class CryptoNormalizedRange {
 
     private String name;
-    private String range;
+    /**
+     * Normalized range scaled by 10^{@link PriceUtil#RANGE_SCALE}, null if it is not calculated.
+     * Used for comparison, text is made only for serialization.
+     */
+    @JsonIgnore
+    private Long rangeValue;
 
     public CryptoNormalizedRange() {
     }
 
     public CryptoNormalizedRange(String name, String range) {
         this.name = name;
-        this.range = range;
+        setRange(range);
+    }
+
+    public CryptoNormalizedRange(String name, long rangeValue) {
+        this.name = name;
+        this.rangeValue = rangeValue;
+    }
+
+    @JsonProperty("range")
+    public String getRange() {
+        return Objects.isNull(rangeValue) ? null : PriceUtil.formatRange(rangeValue);
+    }
+
+    @JsonProperty("range")
+    public void setRange(String range) {
+        rangeValue = Objects.isNull(range) ? null : PriceUtil.parseRange(range);
     }
 }
@@ -0,0 +1,54 @@
+package com.crypto.info.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.time.Instant;
+
+/***
+ * Statistics of the crypto prices in a time range, values are null if the range has too few points
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class CryptoStatistics {
+
+    private String name;
+    /**
+     * Dates of the oldest and the newest point in the range
+     */
+    private Instant oldest;
+    private Instant newest;
+    private int count;
+    private Double mean;
+    /**
+     * Sample standard deviation of the prices
+     */
+    private Double standardDeviation;
+    /**
+     * Newest price / oldest price - 1
+     */
+    private Double change;
+    /**
+     * Sample standard deviation of log returns between consecutive points
+     */
+    private Double volatility;
+    /**
+     * Number of points of the moving averages
+     */
+    private int span;
+    /**
+     * Simple moving average of the last span points of the range
+     */
+    private Double sma;
+    /**
+     * Exponential moving average at the newest point, smoothing is 2 / (span + 1)
+     */
+    private Double ema;
+
+    public CryptoStatistics() {
+    }
+
+    public CryptoStatistics(String name) {
+        this.name = name;
+    }
+}
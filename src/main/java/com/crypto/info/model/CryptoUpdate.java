@@ -0,0 +1,43 @@
+package com.crypto.info.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class CryptoUpdate {
+
+    private String name;
+    /**
+     * Version of the loaded prices the update is computed from
+     */
+    private long version;
+    /**
+     * Price points added since the previous update, oldest first
+     */
+    private List<CryptoData> ticks;
+    /**
+     * Number of added points which are not sent, only the newest points are kept in ticks
+     */
+    private int skippedTicks;
+    /**
+     * Limits of the whole history
+     */
+    private CryptoLimits limits;
+    /**
+     * Normalized range of the whole history
+     */
+    private String normalizedRange;
+
+    public CryptoUpdate() {
+    }
+
+    public CryptoUpdate(String name, long version, CryptoLimits limits, String normalizedRange) {
+        this.name = name;
+        this.version = version;
+        this.limits = limits;
+        this.normalizedRange = normalizedRange;
+    }
+}
@@ -0,0 +1,25 @@
+package com.crypto.info.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+/***
+ * Period of time from now to past, like days, month and years parameters of limits endpoints
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class CryptoWindow {
+
+    private String days;
+    private String month;
+    private String years;
+
+    public CryptoWindow() {
+    }
+
+    public CryptoWindow(String days, String month, String years) {
+        this.days = days;
+        this.month = month;
+        this.years = years;
+    }
+}
@@ -0,0 +1,22 @@
+package com.crypto.info.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class CryptoWindowResult {
+
+    private CryptoWindow window;
+    private CryptoLimits limits;
+    private String normalizedRange;
+
+    public CryptoWindowResult() {
+    }
+
+    public CryptoWindowResult(CryptoWindow window, CryptoLimits limits, String normalizedRange) {
+        this.window = window;
+        this.limits = limits;
+        this.normalizedRange = normalizedRange;
+    }
+}
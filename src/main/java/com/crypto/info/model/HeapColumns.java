@@ -0,0 +1,55 @@
+package com.crypto.info.model;
+
+import java.nio.LongBuffer;
+
+/***
+ * Columns in long arrays on the Java heap
+ */
+final class HeapColumns extends PriceColumns {
+
+    final long[] timestamps;
+    final long[] prices;
+
+    HeapColumns(PriceStorage storage, long[] timestamps, long[] prices) {
+        super(storage);
+        this.timestamps = timestamps;
+        this.prices = prices;
+    }
+
+    @Override
+    public int capacity() {
+        return timestamps.length;
+    }
+
+    @Override
+    public long timestamp(int index) {
+        return timestamps[index];
+    }
+
+    @Override
+    public long price(int index) {
+        return prices[index];
+    }
+
+    @Override
+    void set(int index, long timestamp, long price) {
+        timestamps[index] = timestamp;
+        prices[index] = price;
+    }
+
+    @Override
+    void copy(PriceColumns source, int from, int position, int length) {
+        if (source instanceof HeapColumns) {
+            System.arraycopy(((HeapColumns) source).timestamps, from, timestamps, position, length);
+            System.arraycopy(((HeapColumns) source).prices, from, prices, position, length);
+        } else {
+            super.copy(source, from, position, length);
+        }
+    }
+
+    @Override
+    public void load(LongBuffer timestamps, LongBuffer prices) {
+        timestamps.get(this.timestamps, 0, timestamps.remaining());
+        prices.get(this.prices, 0, prices.remaining());
+    }
+}
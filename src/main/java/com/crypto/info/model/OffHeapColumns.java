@@ -0,0 +1,70 @@
+package com.crypto.info.model;
+
+import java.nio.LongBuffer;
+
+/***
+ * Columns in direct or memory-mapped buffers outside of the Java heap
+ */
+final class OffHeapColumns extends PriceColumns {
+
+    private final LongBuffer timestamps;
+    private final LongBuffer prices;
+    private final Runnable release;
+
+    /**
+     * @param release - frees resources of the columns which are not needed by readers, e.g. backing file
+     */
+    OffHeapColumns(PriceStorage storage, LongBuffer timestamps, LongBuffer prices, Runnable release) {
+        super(storage);
+        this.timestamps = timestamps;
+        this.prices = prices;
+        this.release = release;
+    }
+
+    @Override
+    public int capacity() {
+        return timestamps.capacity();
+    }
+
+    @Override
+    public long timestamp(int index) {
+        return timestamps.get(index);
+    }
+
+    @Override
+    public long price(int index) {
+        return prices.get(index);
+    }
+
+    @Override
+    void set(int index, long timestamp, long price) {
+        timestamps.put(index, timestamp);
+        prices.put(index, price);
+    }
+
+    @Override
+    void copy(PriceColumns source, int from, int position, int length) {
+        if (source instanceof OffHeapColumns) {
+            OffHeapColumns offHeap = (OffHeapColumns) source;
+            timestamps.duplicate().position(position).put(offHeap.timestamps.duplicate().position(from).limit(from + length));
+            prices.duplicate().position(position).put(offHeap.prices.duplicate().position(from).limit(from + length));
+        } else if (source instanceof HeapColumns) {
+            HeapColumns heap = (HeapColumns) source;
+            timestamps.duplicate().position(position).put(heap.timestamps, from, length);
+            prices.duplicate().position(position).put(heap.prices, from, length);
+        } else {
+            super.copy(source, from, position, length);
+        }
+    }
+
+    @Override
+    public void load(LongBuffer timestamps, LongBuffer prices) {
+        this.timestamps.duplicate().put(timestamps);
+        this.prices.duplicate().put(prices);
+    }
+
+    @Override
+    public void release() {
+        release.run();
+    }
+}
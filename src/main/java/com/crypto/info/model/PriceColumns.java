@@ -0,0 +1,96 @@
+package com.crypto.info.model;
+
+import java.nio.LongBuffer;
+
+/***
+ * Timestamp and price columns of a series with fixed capacity, kept in the storage they were allocated by.
+ * Points below the size of a published series are never changed, appends only fill the spare capacity.
+ */
+public abstract class PriceColumns {
+
+    private final PriceStorage storage;
+
+    PriceColumns(PriceStorage storage) {
+        this.storage = storage;
+    }
+
+    public PriceStorage getStorage() {
+        return storage;
+    }
+
+    public abstract int capacity();
+
+    public abstract long timestamp(int index);
+
+    public abstract long price(int index);
+
+    abstract void set(int index, long timestamp, long price);
+
+    /**
+     * Copies points of the source columns, storages may differ
+     *
+     * @param from     - position of the first copied point in the source
+     * @param position - position of the first copied point in these columns
+     * @param length   - number of copied points
+     */
+    void copy(PriceColumns source, int from, int position, int length) {
+        for (int i = 0; i < length; i++) {
+            set(position + i, source.timestamp(from + i), source.price(from + i));
+        }
+    }
+
+    /**
+     * @return index of the first point with the lowest or the highest price in [from, to), -1 for empty range
+     */
+    int indexOfExtreme(int from, int to, boolean min) {
+        int result = -1;
+        long best = 0;
+        for (int i = from; i < to; i++) {
+            long price = price(i);
+            if (result < 0 || (min ? price < best : price > best)) {
+                result = i;
+                best = price;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Binary search over sorted timestamps of the first size points
+     *
+     * @param upper - true to find the first timestamp greater than the given one, false for not less than it
+     * @return index of the found point, size if there is no such point
+     */
+    int bound(long timestamp, int size, boolean upper) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (upper ? timestamp(middle) <= timestamp : timestamp(middle) < timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return approximate size of the columns in bytes, spare capacity included
+     */
+    long estimatedBytes() {
+        return 2L * capacity() * Long.BYTES;
+    }
+
+    /**
+     * Fills the first points from buffers, e.g. mapped columns of a snapshot
+     */
+    public abstract void load(LongBuffer timestamps, LongBuffer prices);
+
+    /**
+     * Called when the columns are no longer used by the published series.
+     * Series read by running requests stay readable, memory is returned when the columns are collected.
+     */
+    public void release() {
+    }
+}
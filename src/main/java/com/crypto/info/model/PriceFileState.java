@@ -0,0 +1,17 @@
+package com.crypto.info.model;
+
+import lombok.Data;
+
+/***
+ * Part of the prices file which is already loaded to the series.
+ * Checksums of the first and the last bytes of the loaded part are used
+ * to detect that file was rewritten rather than appended.
+ */
+@Data
+public class PriceFileState {
+
+    private final long offset;
+    private final long lastTimestamp;
+    private final long headChecksum;
+    private final long tailChecksum;
+}
@@ -0,0 +1,225 @@
+package com.crypto.info.model;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+
+/***
+ * Open/high/low/close/count buckets of the price series for one resolution and time zone.
+ * Bucket edges are found by binary search and high/low by range index of the series,
+ * so building costs per bucket, not per point.
+ */
+public final class PriceRollup {
+
+    private final RollupResolution resolution;
+    private final ZoneId zone;
+    private final int size;
+    private final long[] keys;
+    private final long[] starts;
+    private final int[] firstIndexes;
+    private final long[] open;
+    private final long[] high;
+    private final long[] low;
+    private final long[] close;
+    private final int[] counts;
+
+    private PriceRollup(RollupResolution resolution, ZoneId zone, int size, long[] keys, long[] starts, int[] firstIndexes,
+                        long[] open, long[] high, long[] low, long[] close, int[] counts) {
+        this.resolution = resolution;
+        this.zone = zone;
+        this.size = size;
+        this.keys = keys;
+        this.starts = starts;
+        this.firstIndexes = firstIndexes;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.counts = counts;
+    }
+
+    public static PriceRollup build(PriceSeries series, RollupResolution resolution, ZoneId zone) {
+        return new Builder(resolution, zone, 16).addBuckets(series, 0).build();
+    }
+
+    /**
+     * Returns rollup of the series which has all points of the rolled up series plus appended ones.
+     * Buckets before the last one are kept, the last bucket is built again.
+     */
+    public PriceRollup append(PriceSeries series) {
+        if (size == 0) {
+            return build(series, resolution, zone);
+        }
+        Builder builder = new Builder(resolution, zone, size + 16);
+        builder.copy(this, size - 1);
+        return builder.addBuckets(series, firstIndexes[size - 1]).build();
+    }
+
+    public RollupResolution getResolution() {
+        return resolution;
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param key - bucket key, see {@link RollupResolution#key(ZonedDateTime)}
+     * @return bucket position or -1 if there are no points in the bucket
+     */
+    public int indexOf(long key) {
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        return index < 0 ? -1 : index;
+    }
+
+    /**
+     * @return bucket position or -1 if there are no points in the bucket which contains the instant
+     */
+    public int indexOf(Instant instant) {
+        return indexOf(resolution.key(resolution.bucketStart(instant, zone)));
+    }
+
+    /**
+     * @param timestamp - epoch millis
+     * @return position of the first bucket which starts at or after the timestamp, size if there is none
+     */
+    public int lowerBound(long timestamp) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (starts[middle] < timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    public long key(int bucket) {
+        return keys[bucket];
+    }
+
+    /**
+     * @return start of the bucket in epoch millis
+     */
+    public long start(int bucket) {
+        return starts[bucket];
+    }
+
+    public long open(int bucket) {
+        return open[bucket];
+    }
+
+    public long high(int bucket) {
+        return high[bucket];
+    }
+
+    public long low(int bucket) {
+        return low[bucket];
+    }
+
+    public long close(int bucket) {
+        return close[bucket];
+    }
+
+    public int count(int bucket) {
+        return counts[bucket];
+    }
+
+    /**
+     * @return approximate heap size of the bucket columns in bytes
+     */
+    public long estimatedBytes() {
+        return (long) keys.length * (6 * Long.BYTES + 2 * Integer.BYTES);
+    }
+
+    /***
+     * Collects buckets in growable columns
+     */
+    private static final class Builder {
+
+        private final RollupResolution resolution;
+        private final ZoneId zone;
+        private int size;
+        private long[] keys;
+        private long[] starts;
+        private int[] firstIndexes;
+        private long[] open;
+        private long[] high;
+        private long[] low;
+        private long[] close;
+        private int[] counts;
+
+        private Builder(RollupResolution resolution, ZoneId zone, int capacity) {
+            this.resolution = resolution;
+            this.zone = zone;
+            keys = new long[capacity];
+            starts = new long[capacity];
+            firstIndexes = new int[capacity];
+            open = new long[capacity];
+            high = new long[capacity];
+            low = new long[capacity];
+            close = new long[capacity];
+            counts = new int[capacity];
+        }
+
+        private void copy(PriceRollup rollup, int buckets) {
+            ensureCapacity(buckets);
+            System.arraycopy(rollup.keys, 0, keys, 0, buckets);
+            System.arraycopy(rollup.starts, 0, starts, 0, buckets);
+            System.arraycopy(rollup.firstIndexes, 0, firstIndexes, 0, buckets);
+            System.arraycopy(rollup.open, 0, open, 0, buckets);
+            System.arraycopy(rollup.high, 0, high, 0, buckets);
+            System.arraycopy(rollup.low, 0, low, 0, buckets);
+            System.arraycopy(rollup.close, 0, close, 0, buckets);
+            System.arraycopy(rollup.counts, 0, counts, 0, buckets);
+            size = buckets;
+        }
+
+        private Builder addBuckets(PriceSeries series, int from) {
+            int first = from;
+            while (first < series.size()) {
+                ZonedDateTime start = resolution.bucketStart(Instant.ofEpochMilli(series.timestamp(first)), zone);
+                int next = series.lowerBound(resolution.nextBucketStart(start).toInstant().toEpochMilli());
+                ensureCapacity(size + 1);
+                keys[size] = resolution.key(start);
+                starts[size] = start.toInstant().toEpochMilli();
+                firstIndexes[size] = first;
+                open[size] = series.price(first);
+                high[size] = series.price(series.indexOfMax(first, next));
+                low[size] = series.price(series.indexOfMin(first, next));
+                close[size] = series.price(next - 1);
+                counts[size] = next - first;
+                size++;
+                first = next;
+            }
+            return this;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity <= keys.length) {
+                return;
+            }
+            int newCapacity = Math.max(capacity, keys.length + (keys.length >> 1));
+            keys = Arrays.copyOf(keys, newCapacity);
+            starts = Arrays.copyOf(starts, newCapacity);
+            firstIndexes = Arrays.copyOf(firstIndexes, newCapacity);
+            open = Arrays.copyOf(open, newCapacity);
+            high = Arrays.copyOf(high, newCapacity);
+            low = Arrays.copyOf(low, newCapacity);
+            close = Arrays.copyOf(close, newCapacity);
+            counts = Arrays.copyOf(counts, newCapacity);
+        }
+
+        private PriceRollup build() {
+            return new PriceRollup(resolution, zone, size, keys, starts, firstIndexes, open, high, low, close, counts);
+        }
+    }
+}
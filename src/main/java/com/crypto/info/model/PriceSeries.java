@@ -0,0 +1,269 @@
+package com.crypto.info.model;
+
+import com.crypto.info.util.PriceUtil;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/***
+ * Columnar in-memory form of crypto prices.
+ * Timestamps are kept as epoch millis and prices as fixed-point values (see {@link PriceUtil}),
+ * both columns are sorted by timestamp. Min and max price of any range are found with {@link RangeIndex}.
+ * Columns are kept on the heap or off-heap, see {@link PriceStorage}; appended series keeps the storage.
+ */
+public final class PriceSeries {
+
+    private static final PriceSeries EMPTY = new PriceSeries(PriceStorage.heap().allocate(0), 0);
+
+    private final PriceColumns columns;
+    private final int size;
+    /**
+     * Number of filled points in the shared columns, only the series of this size may append in place
+     */
+    private final AtomicInteger filled;
+    private final RangeIndex index;
+
+    private PriceSeries(PriceColumns columns, int size) {
+        this(columns, size, new AtomicInteger(size), RangeIndex.build(columns, size));
+    }
+
+    private PriceSeries(PriceColumns columns, int size, AtomicInteger filled, RangeIndex index) {
+        this.columns = columns;
+        this.size = size;
+        this.filled = filled;
+        this.index = index;
+    }
+
+    public static PriceSeries empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Wraps columns without copying, e.g. columns read from a snapshot
+     *
+     * @param columns - columns with points sorted by timestamp
+     * @param size    - number of filled points
+     */
+    public static PriceSeries of(PriceColumns columns, int size) {
+        if (size > columns.capacity()) {
+            throw new IllegalArgumentException("Size " + size + " exceeds columns capacity " + columns.capacity());
+        }
+        return size == 0 ? EMPTY : new PriceSeries(columns, size);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long timestamp(int index) {
+        return columns.timestamp(index);
+    }
+
+    public long price(int index) {
+        return columns.price(index);
+    }
+
+    public PriceColumns getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return index of the first point with the lowest price, -1 for empty series
+     */
+    public int indexOfMin() {
+        return indexOfMin(0, size);
+    }
+
+    /**
+     * @return index of the first point with the highest price, -1 for empty series
+     */
+    public int indexOfMax() {
+        return indexOfMax(0, size);
+    }
+
+    /**
+     * Uses range index, so only boundary blocks of the range are scanned
+     *
+     * @return index of the first point with the lowest price in [from, to), -1 for empty range
+     */
+    public int indexOfMin(int from, int to) {
+        return index.indexOfMin(columns, from, to);
+    }
+
+    /**
+     * Uses range index, so only boundary blocks of the range are scanned
+     *
+     * @return index of the first point with the highest price in [from, to), -1 for empty range
+     */
+    public int indexOfMax(int from, int to) {
+        return index.indexOfMax(columns, from, to);
+    }
+
+    /**
+     * Binary search over sorted timestamps
+     *
+     * @return index of the first point with timestamp not less than the given one, size if there is no such point
+     */
+    public int lowerBound(long timestamp) {
+        return columns.bound(timestamp, size, false);
+    }
+
+    /**
+     * Binary search over sorted timestamps
+     *
+     * @return index of the first point with timestamp greater than the given one, size if there is no such point
+     */
+    public int upperBound(long timestamp) {
+        return columns.bound(timestamp, size, true);
+    }
+
+    /**
+     * @return timestamp of the newest point, Long.MIN_VALUE for empty series
+     */
+    public long lastTimestamp() {
+        return size == 0 ? Long.MIN_VALUE : columns.timestamp(size - 1);
+    }
+
+    /**
+     * Returns series with points of the tail added after points of this series.
+     * Columns are filled in place while they have spare capacity, this series never sees points beyond its size.
+     * If the tail starts before the newest point, series are merged into new columns.
+     */
+    public PriceSeries append(PriceSeries tail) {
+        if (tail.isEmpty()) {
+            return this;
+        }
+        if (isEmpty()) {
+            return tail;
+        }
+        if (tail.timestamp(0) < lastTimestamp()) {
+            Builder builder = new Builder(size + tail.size);
+            for (int i = 0; i < size; i++) {
+                builder.add(timestamp(i), price(i));
+            }
+            for (int i = 0; i < tail.size; i++) {
+                builder.add(tail.timestamp(i), tail.price(i));
+            }
+            return builder.build(columns.getStorage());
+        }
+        int newSize = size + tail.size;
+        if (newSize <= columns.capacity() && filled.compareAndSet(size, newSize)) {
+            columns.copy(tail.columns, 0, size, tail.size);
+            return new PriceSeries(columns, newSize, filled, index.extend(columns, newSize));
+        }
+        int capacity = Math.max(newSize, size + (size >> 1));
+        PriceColumns newColumns = columns.getStorage().allocate(capacity);
+        newColumns.copy(columns, 0, 0, size);
+        newColumns.copy(tail.columns, 0, size, tail.size);
+        return new PriceSeries(newColumns, newSize);
+    }
+
+    /**
+     * @return approximate size of the columns, heap, off-heap or compressed, and the range index in bytes,
+     * spare capacity included
+     */
+    public long estimatedBytes() {
+        return columns.estimatedBytes() + index.estimatedBytes();
+    }
+
+    /**
+     * Creates response object for a single point of the series
+     *
+     * @param index - index of the point
+     * @param name  - crypto name to set, may be null
+     */
+    public CryptoData toCryptoData(int index, String name) {
+        return new CryptoData(Instant.ofEpochMilli(columns.timestamp(index)), name, PriceUtil.formatPrice(columns.price(index)));
+    }
+
+    /***
+     * Collects points in any order and builds series sorted by timestamp
+     */
+    public static final class Builder {
+
+        private static final int INITIAL_CAPACITY = 256;
+
+        private long[] timestamps;
+        private long[] prices;
+        private int size;
+        private boolean sorted = true;
+
+        private Builder() {
+            this(INITIAL_CAPACITY);
+        }
+
+        private Builder(int capacity) {
+            timestamps = new long[Math.max(capacity, 1)];
+            prices = new long[Math.max(capacity, 1)];
+        }
+
+        public Builder add(long timestamp, long price) {
+            if (size == timestamps.length) {
+                int capacity = Math.max(size + (size >> 1), size + 1);
+                timestamps = Arrays.copyOf(timestamps, capacity);
+                prices = Arrays.copyOf(prices, capacity);
+            }
+            if (size > 0 && timestamp < timestamps[size - 1]) {
+                sorted = false;
+            }
+            timestamps[size] = timestamp;
+            prices[size] = price;
+            size++;
+            return this;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public PriceSeries build() {
+            return build(PriceStorage.heap());
+        }
+
+        /**
+         * @param storage - storage of the series columns, off-heap and compressed columns are filled from the collected points
+         */
+        public PriceSeries build(PriceStorage storage) {
+            if (size == 0) {
+                return EMPTY;
+            }
+            if (!sorted) {
+                sortByTimestamp();
+            }
+            if (PriceStorage.HEAP.equals(storage.getMode())) {
+                return new PriceSeries(new HeapColumns(storage, Arrays.copyOf(timestamps, size), Arrays.copyOf(prices, size)), size);
+            }
+            PriceColumns columns = storage.allocate(size);
+            columns.copy(new HeapColumns(PriceStorage.heap(), timestamps, prices), 0, 0, size);
+            return new PriceSeries(columns, size);
+        }
+
+        private void sortByTimestamp() {
+            long[] ts = timestamps;
+            int[] order = IntStream.range(0, size).boxed()
+                .sorted(Comparator.comparingLong(i -> ts[i]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+            long[] sortedTimestamps = new long[size];
+            long[] sortedPrices = new long[size];
+            for (int i = 0; i < size; i++) {
+                sortedTimestamps[i] = timestamps[order[i]];
+                sortedPrices[i] = prices[order[i]];
+            }
+            timestamps = sortedTimestamps;
+            prices = sortedPrices;
+            sorted = true;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.crypto.info.model;
+
+import com.crypto.info.util.PriceUtil;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/***
+ * Prefix sums of the price series: sums of prices, squared prices, log returns and squared log returns
+ * of the first i points. Sums of any range are differences of two prefix sums, so mean and standard deviation
+ * of prices and volatility of log returns are computed in O(1).
+ * Prices are summed relative to the first price of the series, which keeps variance accurate for prices far from zero.
+ * Prefix arrays have spare capacity, appended points are summed in place: entries used by statistics
+ * of smaller size never change.
+ */
+public final class PriceStatistics {
+
+    /**
+     * Max span of moving averages, exponential moving average reads up to about 10 spans of points
+     */
+    public static final int MAX_SPAN = 10_000;
+    private static final double PRICE_MULTIPLIER = Math.pow(10, PriceUtil.PRICE_SCALE);
+    /**
+     * Weight of the points older than the exponential moving average reads
+     */
+    private static final double EMA_TOLERANCE = 1e-9;
+    private static final PriceStatistics EMPTY = new PriceStatistics(0, 0, new double[1], new double[1], new double[1],
+        new double[1], new AtomicInteger());
+
+    private final long reference;
+    private final int size;
+    private final double[] sums;
+    private final double[] squares;
+    private final double[] returns;
+    private final double[] returnSquares;
+    /**
+     * Number of summed points in the shared arrays, only the statistics of this size may append in place
+     */
+    private final AtomicInteger filled;
+
+    private PriceStatistics(long reference, int size, double[] sums, double[] squares, double[] returns,
+                            double[] returnSquares, AtomicInteger filled) {
+        this.reference = reference;
+        this.size = size;
+        this.sums = sums;
+        this.squares = squares;
+        this.returns = returns;
+        this.returnSquares = returnSquares;
+        this.filled = filled;
+    }
+
+    public static PriceStatistics build(PriceSeries series) {
+        if (series.isEmpty()) {
+            return EMPTY;
+        }
+        int capacity = series.getColumns().capacity() + 1;
+        PriceStatistics statistics = new PriceStatistics(series.price(0), series.size(), new double[capacity],
+            new double[capacity], new double[capacity], new double[capacity], new AtomicInteger(series.size()));
+        statistics.sum(series, 0, series.size());
+        return statistics;
+    }
+
+    /**
+     * Returns statistics of the series which has all points of this one plus appended ones,
+     * appended points are summed in place while the arrays have capacity.
+     * Series merged with older points needs statistics built again.
+     */
+    public PriceStatistics append(PriceSeries series) {
+        if (size == 0) {
+            return build(series);
+        }
+        int newSize = series.size();
+        if (newSize == size) {
+            return this;
+        }
+        PriceStatistics statistics;
+        if (newSize < sums.length && filled.compareAndSet(size, newSize)) {
+            statistics = new PriceStatistics(reference, newSize, sums, squares, returns, returnSquares, filled);
+        } else {
+            int capacity = Math.max(newSize, size + (size >> 1)) + 1;
+            statistics = new PriceStatistics(reference, newSize, Arrays.copyOf(sums, capacity),
+                Arrays.copyOf(squares, capacity), Arrays.copyOf(returns, capacity),
+                Arrays.copyOf(returnSquares, capacity), new AtomicInteger(newSize));
+        }
+        statistics.sum(series, size, newSize);
+        return statistics;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return mean price of the points [from, to), NaN for empty range
+     */
+    public double mean(int from, int to) {
+        checkRange(from, to);
+        int count = to - from;
+        if (count == 0) {
+            return Double.NaN;
+        }
+        return reference / PRICE_MULTIPLIER + (sums[to] - sums[from]) / count;
+    }
+
+    /**
+     * @return sample standard deviation of the prices of the points [from, to), NaN for less than two points
+     */
+    public double standardDeviation(int from, int to) {
+        checkRange(from, to);
+        return standardDeviation(sums, squares, from, to);
+    }
+
+    /**
+     * @return sample standard deviation of the log returns between the points [from, to),
+     * NaN for less than two returns
+     */
+    public double volatility(int from, int to) {
+        checkRange(from, to);
+        return from + 1 >= to ? Double.NaN : standardDeviation(returns, returnSquares, from + 1, to);
+    }
+
+    /**
+     * @return approximate heap size of the prefix arrays in bytes
+     */
+    public long estimatedBytes() {
+        return 4L * sums.length * Double.BYTES;
+    }
+
+    /**
+     * Exponential moving average at the last point of [from, to) with smoothing 2 / (span + 1),
+     * started from the first point of the range. Only the points with weight above {@link #EMA_TOLERANCE}
+     * are read, so it costs O(span) for any range.
+     *
+     * @return average price, NaN for empty range
+     */
+    public static double exponentialAverage(PriceSeries series, int from, int to, int span) {
+        checkSpan(span);
+        if (from >= to) {
+            return Double.NaN;
+        }
+        double alpha = 2.0 / (span + 1);
+        int horizon = span == 1 ? 1 : (int) Math.ceil(Math.log(EMA_TOLERANCE) / Math.log(1 - alpha));
+        int first = Math.max(from, to - horizon);
+        double average = series.price(first);
+        for (int i = first + 1; i < to; i++) {
+            average += alpha * (series.price(i) - average);
+        }
+        return average / PRICE_MULTIPLIER;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the span of moving averages is not from 1 to {@link #MAX_SPAN}
+     */
+    public static void checkSpan(int span) {
+        if (span < 1 || span > MAX_SPAN) {
+            throw new IllegalArgumentException("Span should be from 1 to " + MAX_SPAN + ": " + span);
+        }
+    }
+
+    /**
+     * Sums points [from, to) of the series after the prefix of the previous point
+     */
+    private void sum(PriceSeries series, int from, int to) {
+        long previous = from == 0 ? 0 : series.price(from - 1);
+        for (int i = from; i < to; i++) {
+            long price = series.price(i);
+            double shifted = (price - reference) / PRICE_MULTIPLIER;
+            sums[i + 1] = sums[i] + shifted;
+            squares[i + 1] = squares[i] + shifted * shifted;
+            double logReturn = i == 0 ? 0 : logReturn(previous, price);
+            returns[i + 1] = returns[i] + logReturn;
+            returnSquares[i + 1] = returnSquares[i] + logReturn * logReturn;
+            previous = price;
+        }
+    }
+
+    private void checkRange(int from, int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") of statistics with size " + size);
+        }
+    }
+
+    /**
+     * @return log return between the prices, 0 if any of them is not positive
+     */
+    private static double logReturn(long previous, long price) {
+        return previous <= 0 || price <= 0 ? 0 : Math.log((double) price / previous);
+    }
+
+    private static double standardDeviation(double[] sums, double[] squares, int from, int to) {
+        int count = to - from;
+        if (count < 2) {
+            return Double.NaN;
+        }
+        double sum = sums[to] - sums[from];
+        double variance = (squares[to] - squares[from] - sum * sum / count) / (count - 1);
+        return Math.sqrt(Math.max(0, variance));
+    }
+}
@@ -0,0 +1,212 @@
+package com.crypto.info.model;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/***
+ * Allocates series columns on the Java heap, in direct buffers, in memory-mapped files
+ * or compressed on the heap, see {@link CompressedColumns}.
+ * Off-heap columns are never freed explicitly, as requests may still read a replaced series:
+ * {@link PriceColumns#release()} deletes the backing file, memory is returned when the columns are collected.
+ * Released direct columns are counted by {@link #releasedDirectBytes()} until they are collected,
+ * so the memory they still hold can be charged to the cache limit.
+ * Mapped file stays readable after it is deleted and its pages may be written out by the OS under memory pressure,
+ * files of the live columns are deleted on exit.
+ */
+public final class PriceStorage {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PriceStorage.class);
+
+    public static final String HEAP = "heap";
+    public static final String DIRECT = "direct";
+    public static final String MAPPED = "mapped";
+    public static final String COMPRESSED = "compressed";
+
+    private static final PriceStorage HEAP_STORAGE = new PriceStorage(HEAP, null);
+    private static final PriceStorage DIRECT_STORAGE = new PriceStorage(DIRECT, null);
+    private static final PriceStorage COMPRESSED_STORAGE = new PriceStorage(COMPRESSED, null);
+    private static final Cleaner CLEANER = Cleaner.create();
+    /**
+     * Bytes of the off-heap columns which are not collected yet
+     */
+    private static final AtomicLong OFF_HEAP_BYTES = new AtomicLong();
+    /**
+     * Bytes of the direct columns which are released and not collected yet
+     */
+    private static final AtomicLong RELEASED_DIRECT_BYTES = new AtomicLong();
+
+    private final String mode;
+    private final Path folder;
+
+    private PriceStorage(String mode, Path folder) {
+        this.mode = mode;
+        this.folder = folder;
+    }
+
+    public static PriceStorage heap() {
+        return HEAP_STORAGE;
+    }
+
+    public static PriceStorage direct() {
+        return DIRECT_STORAGE;
+    }
+
+    public static PriceStorage compressed() {
+        return COMPRESSED_STORAGE;
+    }
+
+    /**
+     * @param folder - folder of the column files, created on the first allocation
+     */
+    public static PriceStorage mapped(Path folder) {
+        return new PriceStorage(MAPPED, folder);
+    }
+
+    /**
+     * @param mode   - {@link #HEAP}, {@link #DIRECT}, {@link #MAPPED} or {@link #COMPRESSED}
+     * @param folder - folder of the column files for mapped storage
+     */
+    public static PriceStorage of(String mode, Path folder) {
+        switch (mode) {
+            case HEAP:
+                return heap();
+            case DIRECT:
+                return direct();
+            case MAPPED:
+                return mapped(Objects.requireNonNull(folder, "Folder of mapped columns is not set"));
+            case COMPRESSED:
+                return compressed();
+            default:
+                throw new IllegalArgumentException("Unknown price storage: " + mode);
+        }
+    }
+
+    /**
+     * @return bytes of the off-heap columns allocated and not collected yet
+     */
+    public static long offHeapBytes() {
+        return OFF_HEAP_BYTES.get();
+    }
+
+    /**
+     * @return bytes of the direct columns released and not collected yet, they are still held in memory
+     */
+    public static long releasedDirectBytes() {
+        return RELEASED_DIRECT_BYTES.get();
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public boolean isOffHeap() {
+        return DIRECT.equals(mode) || MAPPED.equals(mode);
+    }
+
+    public PriceColumns allocate(int capacity) {
+        if (HEAP.equals(mode)) {
+            return new HeapColumns(this, new long[capacity], new long[capacity]);
+        }
+        if (COMPRESSED.equals(mode)) {
+            return new CompressedColumns(this, capacity);
+        }
+        long columnBytes = (long) capacity * Long.BYTES;
+        if (DIRECT.equals(mode)) {
+            long bytes = 2 * columnBytes;
+            AtomicBoolean released = new AtomicBoolean();
+            return register(new OffHeapColumns(this, directColumn(columnBytes), directColumn(columnBytes),
+                () -> markReleased(bytes, released)), bytes, () -> collectReleased(bytes, released));
+        }
+        try {
+            Files.createDirectories(folder);
+            Path file = Files.createTempFile(folder, "series", ".columns");
+            file.toFile().deleteOnExit();
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                LongBuffer timestamps = mappedColumn(channel, 0, columnBytes);
+                LongBuffer prices = mappedColumn(channel, columnBytes, columnBytes);
+                AtomicBoolean deleted = new AtomicBoolean();
+                return register(new OffHeapColumns(this, timestamps, prices, () -> delete(file, deleted)),
+                    2 * columnBytes, () -> delete(file, deleted));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Columns of " + capacity + " points are not mapped in " + folder, e);
+        }
+    }
+
+    /**
+     * Wraps buffers, e.g. columns of a mapped snapshot, as full columns of this storage without copying.
+     * Columns are read-only: appended series is copied to new columns, the buffers are never released.
+     */
+    public PriceColumns wrap(LongBuffer timestamps, LongBuffer prices) {
+        return new OffHeapColumns(this, timestamps.asReadOnlyBuffer(), prices.asReadOnlyBuffer(), () -> { });
+    }
+
+    @Override
+    public String toString() {
+        return Objects.isNull(folder) ? mode : mode + ":" + folder;
+    }
+
+    /**
+     * Counts allocated bytes until the columns are collected
+     *
+     * @param cleanup - called after the columns are collected, may be null
+     */
+    private static PriceColumns register(PriceColumns columns, long bytes, Runnable cleanup) {
+        OFF_HEAP_BYTES.addAndGet(bytes);
+        CLEANER.register(columns, () -> {
+            OFF_HEAP_BYTES.addAndGet(-bytes);
+            if (Objects.nonNull(cleanup)) {
+                cleanup.run();
+            }
+        });
+        return columns;
+    }
+
+    private static LongBuffer directColumn(long bytes) {
+        return ByteBuffer.allocateDirect(Math.toIntExact(bytes)).order(ByteOrder.nativeOrder()).asLongBuffer();
+    }
+
+    private static LongBuffer mappedColumn(FileChannel channel, long position, long bytes) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_WRITE, position, bytes).order(ByteOrder.nativeOrder()).asLongBuffer();
+    }
+
+    private static void markReleased(long bytes, AtomicBoolean released) {
+        if (released.compareAndSet(false, true)) {
+            RELEASED_DIRECT_BYTES.addAndGet(bytes);
+        }
+    }
+
+    /**
+     * Released flag is set also for columns collected without release, so a late release is not counted
+     */
+    private static void collectReleased(long bytes, AtomicBoolean released) {
+        if (!released.compareAndSet(false, true)) {
+            RELEASED_DIRECT_BYTES.addAndGet(-bytes);
+        }
+    }
+
+    private static void delete(Path file, AtomicBoolean deleted) {
+        if (deleted.compareAndSet(false, true)) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                LOG.warn("Columns file {} is not deleted: {}", file, e.getMessage());
+                file.toFile().deleteOnExit();
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.crypto.info.model;
+
+/***
+ * Range extremum index over price column.
+ * Points are grouped in blocks of {@link #BLOCK_SIZE}, sparse tables keep positions of min and max prices
+ * of every 2^k consecutive full blocks. Query scans at most two partial blocks and reads two table entries.
+ * Tables are allocated for the whole column capacity, appended blocks are filled in place:
+ * entries used by series of smaller size never change.
+ */
+final class RangeIndex {
+
+    static final int BLOCK_SHIFT = 7;
+    static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+
+    private final int[][] minTable;
+    private final int[][] maxTable;
+    private final int blocks;
+
+    private RangeIndex(int[][] minTable, int[][] maxTable, int blocks) {
+        this.minTable = minTable;
+        this.maxTable = maxTable;
+        this.blocks = blocks;
+    }
+
+    /**
+     * Builds index for the first size points, tables are allocated for all prices capacity
+     */
+    static RangeIndex build(PriceColumns prices, int size) {
+        int capacityBlocks = prices.capacity() >> BLOCK_SHIFT;
+        int levels = capacityBlocks == 0 ? 0 : 32 - Integer.numberOfLeadingZeros(capacityBlocks);
+        int[][] minTable = new int[levels][];
+        int[][] maxTable = new int[levels][];
+        for (int k = 0; k < levels; k++) {
+            minTable[k] = new int[capacityBlocks - (1 << k) + 1];
+            maxTable[k] = new int[capacityBlocks - (1 << k) + 1];
+        }
+        RangeIndex index = new RangeIndex(minTable, maxTable, 0);
+        return index.extend(prices, size);
+    }
+
+    /**
+     * Adds full blocks of points appended after already indexed ones
+     *
+     * @param prices - the same price column this index was built for
+     * @param size   - new number of points
+     */
+    RangeIndex extend(PriceColumns prices, int size) {
+        int newBlocks = size >> BLOCK_SHIFT;
+        if (newBlocks == blocks) {
+            return this;
+        }
+        for (int j = blocks; j < newBlocks; j++) {
+            int from = j << BLOCK_SHIFT;
+            minTable[0][j] = scan(prices, from, from + BLOCK_SIZE, true);
+            maxTable[0][j] = scan(prices, from, from + BLOCK_SIZE, false);
+        }
+        for (int k = 1; k < minTable.length && (1 << k) <= newBlocks; k++) {
+            int half = 1 << (k - 1);
+            int first = Math.max(0, blocks - (1 << k) + 1);
+            int last = newBlocks - (1 << k);
+            for (int j = first; j <= last; j++) {
+                minTable[k][j] = better(prices, minTable[k - 1][j], minTable[k - 1][j + half], true);
+                maxTable[k][j] = better(prices, maxTable[k - 1][j], maxTable[k - 1][j + half], false);
+            }
+        }
+        return new RangeIndex(minTable, maxTable, newBlocks);
+    }
+
+    /**
+     * @return index of the first point with the lowest price in [from, to), -1 for empty range
+     */
+    int indexOfMin(PriceColumns prices, int from, int to) {
+        return query(prices, from, to, true);
+    }
+
+    /**
+     * @return index of the first point with the highest price in [from, to), -1 for empty range
+     */
+    int indexOfMax(PriceColumns prices, int from, int to) {
+        return query(prices, from, to, false);
+    }
+
+    private int query(PriceColumns prices, int from, int to, boolean min) {
+        int firstBlock = (from + BLOCK_SIZE - 1) >> BLOCK_SHIFT;
+        int lastBlock = Math.min(to >> BLOCK_SHIFT, blocks);
+        if (firstBlock >= lastBlock) {
+            return scan(prices, from, to, min);
+        }
+        int result = scan(prices, from, firstBlock << BLOCK_SHIFT, min);
+        int[][] table = min ? minTable : maxTable;
+        int k = 31 - Integer.numberOfLeadingZeros(lastBlock - firstBlock);
+        result = better(prices, result, table[k][firstBlock], min);
+        result = better(prices, result, table[k][lastBlock - (1 << k)], min);
+        return better(prices, result, scan(prices, lastBlock << BLOCK_SHIFT, to, min), min);
+    }
+
+    /**
+     * @return approximate heap size of the tables in bytes
+     */
+    long estimatedBytes() {
+        long entries = 0;
+        for (int[] level : minTable) {
+            entries += level.length;
+        }
+        return 2 * entries * Integer.BYTES;
+    }
+
+    private static int scan(PriceColumns prices, int from, int to, boolean min) {
+        return prices.indexOfExtreme(from, to, min);
+    }
+
+    /**
+     * @return position with lower (or higher) price, the first one if prices are equal
+     */
+    private static int better(PriceColumns prices, int first, int second, boolean min) {
+        if (first < 0) {
+            return second;
+        }
+        if (second < 0) {
+            return first;
+        }
+        long firstPrice = prices.price(first);
+        long secondPrice = prices.price(second);
+        if (firstPrice == secondPrice) {
+            return Math.min(first, second);
+        }
+        return (min ? secondPrice < firstPrice : secondPrice > firstPrice) ? second : first;
+    }
+}
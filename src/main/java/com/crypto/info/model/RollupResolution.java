@@ -0,0 +1,77 @@
+package com.crypto.info.model;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+
+/***
+ * Size of the rollup bucket. Buckets follow local time of the zone the rollup is built for.
+ */
+public enum RollupResolution {
+
+    HOUR {
+        @Override
+        public ZonedDateTime bucketStart(Instant instant, ZoneId zone) {
+            return instant.atZone(zone).truncatedTo(ChronoUnit.HOURS);
+        }
+
+        @Override
+        ZonedDateTime nextBucketStart(ZonedDateTime start) {
+            return start.plusHours(1);
+        }
+
+        @Override
+        public long key(ZonedDateTime start) {
+            return start.toEpochSecond() / 3600;
+        }
+    },
+    DAY {
+        @Override
+        public ZonedDateTime bucketStart(Instant instant, ZoneId zone) {
+            return instant.atZone(zone).toLocalDate().atStartOfDay(zone);
+        }
+
+        @Override
+        ZonedDateTime nextBucketStart(ZonedDateTime start) {
+            return start.toLocalDate().plusDays(1).atStartOfDay(start.getZone());
+        }
+
+        @Override
+        public long key(ZonedDateTime start) {
+            return start.toLocalDate().toEpochDay();
+        }
+    },
+    WEEK {
+        @Override
+        public ZonedDateTime bucketStart(Instant instant, ZoneId zone) {
+            return instant.atZone(zone).toLocalDate()
+                .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                .atStartOfDay(zone);
+        }
+
+        @Override
+        ZonedDateTime nextBucketStart(ZonedDateTime start) {
+            return start.toLocalDate().plusWeeks(1).atStartOfDay(start.getZone());
+        }
+
+        @Override
+        public long key(ZonedDateTime start) {
+            return start.toLocalDate().toEpochDay();
+        }
+    };
+
+    /**
+     * @return start of the bucket which contains the instant
+     */
+    public abstract ZonedDateTime bucketStart(Instant instant, ZoneId zone);
+
+    abstract ZonedDateTime nextBucketStart(ZonedDateTime start);
+
+    /**
+     * @return bucket key: epoch hour for hours, epoch day of the first day for days and weeks
+     */
+    public abstract long key(ZonedDateTime start);
+}
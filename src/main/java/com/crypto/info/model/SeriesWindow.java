@@ -0,0 +1,142 @@
+package com.crypto.info.model;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Objects;
+
+/***
+ * View of the points [from, to) of the price series, points are not copied
+ */
+public final class SeriesWindow {
+
+    private final PriceSeries series;
+    private final int from;
+    private final int to;
+
+    public SeriesWindow(PriceSeries series, int from, int to) {
+        if (from < 0 || to > series.size() || from > to) {
+            throw new IndexOutOfBoundsException("Window [" + from + ", " + to + ") of series with size " + series.size());
+        }
+        this.series = series;
+        this.from = from;
+        this.to = to;
+    }
+
+    public static SeriesWindow of(PriceSeries series) {
+        return new SeriesWindow(series, 0, series.size());
+    }
+
+    /**
+     * @param from,to - time range [from, to), null means not limited
+     * @return points of the series in the time range
+     */
+    public static SeriesWindow between(PriceSeries series, Instant from, Instant to) {
+        int first = Objects.isNull(from) ? 0 : series.lowerBound(from.toEpochMilli());
+        int last = Objects.isNull(to) ? series.size() : series.lowerBound(to.toEpochMilli());
+        return new SeriesWindow(series, first, Math.max(first, last));
+    }
+
+    /**
+     * Returns rest of the window starting from the point with the timestamp,
+     * skip is number of points with the same timestamp to pass by.
+     * Positions are found by timestamp, so they stay valid when points are appended to the series.
+     */
+    public SeriesWindow startingAt(long timestamp, int skip) {
+        int first = Math.min(Math.max(from, series.lowerBound(timestamp) + skip), to);
+        return new SeriesWindow(series, first, to);
+    }
+
+    /**
+     * @return the first points of the window, not more than limit
+     */
+    public SeriesWindow limit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit should not be negative: " + limit);
+        }
+        return new SeriesWindow(series, from, (int) Math.min(to, (long) from + limit));
+    }
+
+    /**
+     * Downsamples the window to at most requested number of points: window is split into points / 2 buckets
+     * of equal number of points and the lowest and the highest point of each bucket are kept.
+     * Extremes are found with range index, so the cost depends on the number of buckets, not on the window size.
+     *
+     * @param points - max number of points, at least 2
+     * @return ascending series indexes of kept points
+     */
+    public int[] indexesOfMinMax(int points) {
+        if (points < 2) {
+            throw new IllegalArgumentException("At least 2 points are required for downsampling: " + points);
+        }
+        int size = size();
+        if (size <= points) {
+            int[] indexes = new int[size];
+            for (int i = 0; i < size; i++) {
+                indexes[i] = from + i;
+            }
+            return indexes;
+        }
+        int buckets = points / 2;
+        int[] indexes = new int[buckets * 2];
+        int count = 0;
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            int bucketFrom = from + (int) ((long) size * bucket / buckets);
+            int bucketTo = from + (int) ((long) size * (bucket + 1) / buckets);
+            int min = series.indexOfMin(bucketFrom, bucketTo);
+            int max = series.indexOfMax(bucketFrom, bucketTo);
+            indexes[count++] = Math.min(min, max);
+            if (min != max) {
+                indexes[count++] = Math.max(min, max);
+            }
+        }
+        return Arrays.copyOf(indexes, count);
+    }
+
+    public PriceSeries getSeries() {
+        return series;
+    }
+
+    public int getFrom() {
+        return from;
+    }
+
+    public int getTo() {
+        return to;
+    }
+
+    public int size() {
+        return to - from;
+    }
+
+    public boolean isEmpty() {
+        return from == to;
+    }
+
+    /**
+     * @return series index of the first point with the lowest price in the window
+     */
+    public int indexOfMin() {
+        return series.indexOfMin(from, to);
+    }
+
+    /**
+     * @return series index of the first point with the highest price in the window
+     */
+    public int indexOfMax() {
+        return series.indexOfMax(from, to);
+    }
+
+    /**
+     * @return series index of the oldest point in the window
+     */
+    public int indexOfOldest() {
+        return from;
+    }
+
+    /**
+     * @return series index of the newest point in the window
+     */
+    public int indexOfNewest() {
+        return to - 1;
+    }
+}
@@ -1,8 +1,12 @@
 package com.crypto.info.service;
 
+import com.crypto.info.model.CryptoCorrelation;
 import com.crypto.info.model.CryptoLimits;
 import com.crypto.info.model.CryptoNormalizedRange;
+import com.crypto.info.model.CryptoStatistics;
+import com.crypto.info.model.RollupResolution;
 
+import java.time.Instant;
 import java.util.List;
 
 public interface CryptoService {
@@ -36,4 +40,24 @@ public interface CryptoService {
      * @return - crypto entity with normalized range value
      */
     CryptoNormalizedRange getCryptoByHighestNormalizedRange(String day, String month, String year);
+
+    /**
+     * Calculates mean, standard deviation, change, volatility and moving averages of crypto prices in time range
+     *
+     * @param cryptoName - name of cryptocurrency
+     * @param from,to    - time range [from, to), null means not limited
+     * @param span       - number of points of the moving averages
+     * @return - statistics of specific cryptocurrency
+     */
+    CryptoStatistics getCryptoStatistics(String cryptoName, Instant from, Instant to, int span);
+
+    /**
+     * Calculates pairwise correlation of returns of cryptos resampled to common grid of rollup buckets
+     *
+     * @param cryptoNames - names of cryptocurrencies
+     * @param resolution  - size of the grid buckets
+     * @param from,to     - time range [from, to) of the grid, null means not limited
+     * @return - correlation matrix in order of the loaded cryptos
+     */
+    CryptoCorrelation getCorrelation(List<String> cryptoNames, RollupResolution resolution, Instant from, Instant to);
 }
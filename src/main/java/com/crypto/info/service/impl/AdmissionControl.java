@@ -0,0 +1,108 @@
+package com.crypto.info.service.impl;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/***
+ * Bounds the number of heavy computations running at the same time. Computation without a free permit
+ * waits in a bounded queue, it is rejected at once when the queue is full and when it waits longer than the queue timeout,
+ * so a burst is answered with fast rejections instead of occupying all server threads.
+ */
+final class AdmissionControl implements MeterBinder {
+
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long queueTimeoutNanos;
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param maxConcurrent      - max number of computations running at the same time
+     * @param maxQueued          - max number of computations waiting for a permit
+     * @param queueTimeoutMillis - max time of waiting for a permit
+     */
+    AdmissionControl(int maxConcurrent, int maxQueued, long queueTimeoutMillis) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.queueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(queueTimeoutMillis);
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * Computes on the caller thread when a permit is acquired, waiting computations get permits in order of arrival
+     *
+     * @throws IllegalStateException if the queue is full or the permit is not acquired in time
+     */
+    <T> T call(Supplier<T> computation) {
+        acquire();
+        try {
+            return computation.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    int getActive() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    int getQueued() {
+        return queued.get();
+    }
+
+    long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Registers running and queued computations and rejections, all read when scraped
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("admission.active", this, AdmissionControl::getActive)
+            .tags("gate", "results")
+            .register(registry);
+        Gauge.builder("admission.queued", this, AdmissionControl::getQueued)
+            .tags("gate", "results")
+            .register(registry);
+        FunctionCounter.builder("admission.rejected", rejected, LongAdder::sum)
+            .tags("gate", "results")
+            .register(registry);
+    }
+
+    private void acquire() {
+        try {
+            if (permits.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+                return;
+            }
+            if (queued.incrementAndGet() > maxQueued) {
+                queued.decrementAndGet();
+                rejected.increment();
+                throw new IllegalStateException("Computation is rejected, " + maxQueued + " computations are queued");
+            }
+            boolean acquired;
+            try {
+                acquired = permits.tryAcquire(queueTimeoutNanos, TimeUnit.NANOSECONDS);
+            } finally {
+                queued.decrementAndGet();
+            }
+            if (!acquired) {
+                rejected.increment();
+                throw new IllegalStateException("Computation is rejected, no permit in "
+                    + TimeUnit.NANOSECONDS.toMillis(queueTimeoutNanos) + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a permit", e);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.crypto.info.service.impl;
+
+import com.crypto.info.model.PriceRollup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/***
+ * Pairwise correlation of returns of several cryptos resampled to a common grid.
+ * Grid points are starts of the rollup buckets which have points of any of the cryptos,
+ * every crypto has the close price of its last bucket at or before the grid point.
+ * Returns of every crypto are centered and scaled to unit length once, so correlation of a pair is one dot product.
+ */
+final class CorrelationMatrix {
+
+    private CorrelationMatrix() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * @param rollups - rollups of the same resolution and zone
+     * @param from,to - epoch millis of the range [from, to) of bucket starts
+     * @return sorted distinct bucket starts in the range, starting when every crypto has a price
+     */
+    static long[] grid(List<PriceRollup> rollups, long from, long to) {
+        long first = from;
+        int points = 0;
+        for (PriceRollup rollup : rollups) {
+            if (rollup.size() == 0) {
+                return new long[0];
+            }
+            first = Math.max(first, rollup.start(0));
+            points += Math.max(0, rollup.lowerBound(to) - rollup.lowerBound(first));
+        }
+        long[] grid = new long[points];
+        int size = 0;
+        for (PriceRollup rollup : rollups) {
+            for (int bucket = rollup.lowerBound(first); bucket < rollup.size() && rollup.start(bucket) < to; bucket++) {
+                grid[size++] = rollup.start(bucket);
+            }
+        }
+        Arrays.sort(grid, 0, size);
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (distinct == 0 || grid[i] != grid[distinct - 1]) {
+                grid[distinct++] = grid[i];
+            }
+        }
+        return Arrays.copyOf(grid, distinct);
+    }
+
+    /**
+     * Log returns of close prices carried forward to the grid, centered and scaled to unit length
+     *
+     * @param grid - bucket starts, every one is at or after the first bucket of the rollup
+     * @return returns between consecutive grid points, null if there are less than two or all of them are equal
+     */
+    static double[] standardizedReturns(PriceRollup rollup, long[] grid) {
+        if (grid.length < 3) {
+            return null;
+        }
+        double[] returns = new double[grid.length - 1];
+        int bucket = rollup.lowerBound(grid[0] + 1) - 1;
+        long previous = rollup.close(bucket);
+        double sum = 0;
+        for (int i = 1; i < grid.length; i++) {
+            while (bucket + 1 < rollup.size() && rollup.start(bucket + 1) <= grid[i]) {
+                bucket++;
+            }
+            long close = rollup.close(bucket);
+            returns[i - 1] = previous <= 0 || close <= 0 ? 0 : Math.log((double) close / previous);
+            sum += returns[i - 1];
+            previous = close;
+        }
+        double mean = sum / returns.length;
+        double squares = 0;
+        for (int i = 0; i < returns.length; i++) {
+            returns[i] -= mean;
+            squares += returns[i] * returns[i];
+        }
+        if (squares == 0) {
+            return null;
+        }
+        double norm = Math.sqrt(squares);
+        for (int i = 0; i < returns.length; i++) {
+            returns[i] /= norm;
+        }
+        return returns;
+    }
+
+    /**
+     * Correlations of all pairs, rows are computed in parallel. Row i has n - i pairs,
+     * so rows are paired from both ends of the matrix to give every task the same work.
+     *
+     * @param returns       - standardized returns of the same grid, null if they are not defined
+     * @param deadlineNanos - {@link System#nanoTime()} value the matrix has to be ready by
+     * @return symmetric matrix, null for pairs with undefined returns
+     */
+    static List<List<Double>> correlations(List<double[]> returns, ParallelFanOut fanOut, long deadlineNanos) {
+        int n = returns.size();
+        double[][] matrix = new double[n][n];
+        List<Integer> rows = IntStream.range(0, (n + 1) / 2).boxed().collect(Collectors.toList());
+        fanOut.map(rows, row -> {
+            fillRow(returns, matrix, row);
+            if (n - 1 - row != row) {
+                fillRow(returns, matrix, n - 1 - row);
+            }
+            return row;
+        }, deadlineNanos);
+        List<List<Double>> result = new ArrayList<>(n);
+        for (double[] row : matrix) {
+            List<Double> values = new ArrayList<>(n);
+            for (double value : row) {
+                values.add(Double.isNaN(value) ? null : value);
+            }
+            result.add(values);
+        }
+        return result;
+    }
+
+    /**
+     * Fills correlations of the row with itself and the following rows, both halves of the matrix
+     */
+    private static void fillRow(List<double[]> returns, double[][] matrix, int row) {
+        double[] first = returns.get(row);
+        for (int column = row; column < returns.size(); column++) {
+            double[] second = returns.get(column);
+            double correlation = Double.NaN;
+            if (Objects.nonNull(first) && column == row) {
+                correlation = 1;
+            } else if (Objects.nonNull(first) && Objects.nonNull(second)) {
+                double dot = 0;
+                for (int i = 0; i < first.length; i++) {
+                    dot += first[i] * second[i];
+                }
+                correlation = Math.max(-1, Math.min(1, dot));
+            }
+            matrix[row][column] = correlation;
+            matrix[column][row] = correlation;
+        }
+    }
+}
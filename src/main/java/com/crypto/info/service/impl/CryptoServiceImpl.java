@@ -1,12 +1,30 @@
 package com.crypto.info.service.impl;
 
 import com.crypto.info.CryptoPriceValues;
+import com.crypto.info.cache.ResultCache;
+import com.crypto.info.cache.VersionedResult;
+import com.crypto.info.metrics.PriceMetrics;
 import com.crypto.info.model.Crypto;
+import com.crypto.info.model.CryptoBatchResult;
+import com.crypto.info.model.CryptoCorrelation;
 import com.crypto.info.model.CryptoData;
+import com.crypto.info.model.CryptoIngestResult;
 import com.crypto.info.model.CryptoLimits;
 import com.crypto.info.model.CryptoNormalizedRange;
+import com.crypto.info.model.CryptoStatistics;
+import com.crypto.info.model.CryptoUpdate;
+import com.crypto.info.model.CryptoWindow;
+import com.crypto.info.model.CryptoWindowResult;
+import com.crypto.info.model.PriceRollup;
+import com.crypto.info.model.PriceSeries;
+import com.crypto.info.model.PriceStatistics;
+import com.crypto.info.model.PriceStorage;
+import com.crypto.info.model.RollupResolution;
+import com.crypto.info.model.SeriesWindow;
 import com.crypto.info.service.CryptoService;
 import com.crypto.info.util.DateUtil;
+import com.crypto.info.util.PriceUtil;
+import io.micrometer.core.instrument.Metrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -14,13 +32,31 @@ import org.springframework.context.annotation.PropertySource;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Service
 @PropertySource(value = "classpath:supported_cryptos.properties")
@@ -32,46 +68,194 @@ public class CryptoServiceImpl implements CryptoService {
     private List<String> cryptos;
     @Value("${prices.folder}")
     private String pricesFolder;
+    @Value("${prices.refresh.mode:watch}")
+    private String refreshMode;
+    @Value("${prices.refresh.interval:5000}")
+    private long refreshInterval;
+    @Value("${prices.load.timeout:30000}")
+    private long loadTimeout;
+    @Value("${prices.rollup.zone:}")
+    private String rollupZone;
+    @Value("${prices.pinned:}")
+    private List<String> pinnedCryptos;
+    @Value("${prices.cache.max.mb:0}")
+    private long cacheMaxMegabytes;
+    @Value("${prices.storage:heap}")
+    private String storage;
+    @Value("${prices.storage.folder:}")
+    private String storageFolder;
+    @Value("${prices.snapshot.folder:}")
+    private String snapshotFolder;
+    @Value("${prices.ingest.enabled:false}")
+    private boolean ingestEnabled;
+    @Value("${prices.ingest.sync:batch}")
+    private String ingestSync;
+    @Value("${prices.ingest.flush.interval:100}")
+    private long ingestFlushInterval;
+    @Value("${prices.ingest.flush.kb:1024}")
+    private int ingestFlushKilobytes;
+    @Value("${prices.ingest.out.of.order:reject}")
+    private String ingestOutOfOrder;
+    @Value("${updates.interval:250}")
+    private long updatesInterval;
+    @Value("${updates.max.ticks:1000}")
+    private int updatesMaxTicks;
+    @Value("${updates.max.subscriptions:1000}")
+    private int updatesMaxSubscriptions;
+    @Value("${updates.timeout:3600000}")
+    private long updatesTimeout;
+    @Value("${results.cache.size:256}")
+    private int resultsCacheSize;
+    @Value("${results.parallelism:0}")
+    private int resultsParallelism;
+    @Value("${results.timeout:30000}")
+    private long resultsTimeout;
+    @Value("${results.gzip.min.bytes:1024}")
+    private int resultsGzipMinBytes;
+    @Value("${results.max.concurrent:0}")
+    private int resultsMaxConcurrent;
+    @Value("${results.max.queued:64}")
+    private int resultsMaxQueued;
+    @Value("${results.queue.timeout:1000}")
+    private long resultsQueueTimeout;
+    @Value("${results.retry.after:1}")
+    private int resultsRetryAfter;
+
+    private Set<String> supportedCryptos;
+    private ResultCache resultCache;
+    private ParallelFanOut fanOut;
+    private AdmissionControl admission;
+    private PriceUpdateHub updates;
+    private Consumer<Crypto> updatesListener;
 
     /***
-     * Reads all exist files for cryptos defined in properties
+     * Reads files of pinned cryptos and starts watching files of all cryptos defined in properties for changes.
+     * Other cryptos are read on the first request.
      */
     @PostConstruct
     private void cryptoValuesFirstLoad() {
         LOG.info("First crypto price values initialization is started");
-        for (String cryptoName : cryptos) {
-            CryptoPriceValues.getCryptoData(cryptoName, pricesFolder);
+        supportedCryptos = new HashSet<>(cryptos);
+        List<String> pinned = pinnedCryptos.stream().filter(name -> !name.isEmpty()).collect(Collectors.toList());
+        if (!supportedCryptos.containsAll(pinned)) {
+            LOG.warn("Pinned cryptos which are not supported are ignored: {}", pinned.stream()
+                .filter(name -> !supportedCryptos.contains(name)).collect(Collectors.toList()));
+            pinned.retainAll(supportedCryptos);
+        }
+        resultCache = new ResultCache(resultsCacheSize);
+        resultCache.bindTo(Metrics.globalRegistry);
+        fanOut = new ParallelFanOut(resultsParallelism > 0 ? resultsParallelism : Runtime.getRuntime().availableProcessors(),
+            "crypto-results");
+        admission = new AdmissionControl(
+            resultsMaxConcurrent > 0 ? resultsMaxConcurrent : Runtime.getRuntime().availableProcessors(),
+            resultsMaxQueued, resultsQueueTimeout);
+        admission.bindTo(Metrics.globalRegistry);
+        CryptoPriceValues.setLoadTimeout(loadTimeout);
+        CryptoPriceValues.setRollupZone(rollupZone.isEmpty() ? ZoneId.systemDefault() : ZoneId.of(rollupZone));
+        CryptoPriceValues.setStorage(PriceStorage.of(storage, storageFolder.isEmpty()
+            ? Paths.get(System.getProperty("java.io.tmpdir"), "crypto-prices") : Paths.get(storageFolder)));
+        CryptoPriceValues.setSnapshotFolder(snapshotFolder);
+        CryptoPriceValues.setCacheLimit(cacheMaxMegabytes << 20, pinned, cryptos.size());
+        updates = new PriceUpdateHub(this::createUpdate, updatesInterval, updatesMaxTicks, updatesMaxSubscriptions,
+            Math.max(2, Runtime.getRuntime().availableProcessors() / 2));
+        PriceMetrics.registerUpdateSubscriptions(updates, PriceUpdateHub::getSubscriptions);
+        updatesListener = updates::published;
+        CryptoPriceValues.addPublishListener(updatesListener);
+        if (ingestEnabled) {
+            CryptoPriceValues.setIngest(ingestSync, ingestFlushInterval, ingestFlushKilobytes << 10, ingestOutOfOrder);
         }
+        CryptoPriceValues.loadAll(pinned, pricesFolder);
+        CryptoPriceValues.startRefresh(pricesFolder, cryptos, refreshMode, refreshInterval);
+    }
+
+    @PreDestroy
+    private void stopRefresh() {
+        CryptoPriceValues.stopRefresh();
+        CryptoPriceValues.stopIngest();
+        CryptoPriceValues.writeSnapshots();
+        CryptoPriceValues.removePublishListener(updatesListener);
+        updates.close();
+        fanOut.close();
     }
 
     @Override
     public List<CryptoLimits> getAllCryptosLimits(String days, String month, String years) {
-        List<CryptoLimits> limits = new ArrayList<>();
-        for (String cryptoName : cryptos) {
-            Optional<Crypto> cryptoOptional = CryptoPriceValues.getCryptoData(cryptoName, pricesFolder);
-            if (cryptoOptional.isEmpty()) {
-                continue;
-            }
-            Crypto crypto = cryptoOptional.get();
-            CryptoLimits cryptoLimits = createLimits(crypto, days, month, years);
-            limits.add(cryptoLimits);
+        return getAllCryptosLimitsResult(days, month, years).getValue();
+    }
+
+    /**
+     * Limits of all cryptos, cached by versions of the cryptos and start of their windows.
+     * Computations of results of all cryptos are admitted by {@link AdmissionControl}.
+     */
+    public VersionedResult<List<CryptoLimits>> getAllCryptosLimitsResult(String days, String month, String years) {
+        Instant cutoff = DateUtil.periodStart(days, month, years);
+        long deadline = deadline();
+        List<Crypto> loaded = getLoadedCryptos(deadline);
+        List<SeriesWindow> windows = new ArrayList<>(loaded.size());
+        StringBuilder key = new StringBuilder("limits");
+        for (Crypto crypto : loaded) {
+            SeriesWindow window = DateUtil.filterDataByTimePeriod(crypto.getSeries(), cutoff);
+            windows.add(window);
+            appendVersion(key, crypto).append('@').append(window.getFrom());
         }
-        return limits;
+        return resultCache.get(key.toString(), () -> admission.call(() -> fanOut.map(positions(loaded.size()),
+            i -> createLimits(loaded.get(i), windows.get(i)), deadline)), deadline);
     }
 
     @Override
     public CryptoLimits getCryptoLimits(String cryptoName, String days, String month, String years) {
+        VersionedResult<CryptoLimits> result = getCryptoLimitsResult(cryptoName, days, month, years);
+        return Objects.isNull(result) ? null : result.getValue();
+    }
+
+    /**
+     * Limits of the crypto, cached by version of the crypto and start of its window
+     *
+     * @return limits or null if the crypto is not loaded
+     */
+    public VersionedResult<CryptoLimits> getCryptoLimitsResult(String cryptoName, String days, String month, String years) {
+        Instant cutoff = DateUtil.periodStart(days, month, years);
+        Optional<Crypto> cryptoOptional = CryptoPriceValues.getCryptoData(cryptoName, pricesFolder);
+        if (cryptoOptional.isEmpty()) {
+            return null;
+        }
+        Crypto crypto = cryptoOptional.get();
+        SeriesWindow window = DateUtil.filterDataByTimePeriod(crypto.getSeries(), cutoff);
+        StringBuilder key = appendVersion(new StringBuilder("cryptoLimits"), crypto).append('@').append(window.getFrom());
+        return resultCache.get(key.toString(), () -> createLimits(crypto, window), deadline());
+    }
+
+    @Override
+    public CryptoStatistics getCryptoStatistics(String cryptoName, Instant from, Instant to, int span) {
+        VersionedResult<CryptoStatistics> result = getCryptoStatisticsResult(cryptoName, from, to, span);
+        return Objects.isNull(result) ? null : result.getValue();
+    }
+
+    /**
+     * Statistics of the crypto, cached by version of the crypto, points of its time range and span
+     *
+     * @return statistics or null if the crypto is not loaded
+     */
+    public VersionedResult<CryptoStatistics> getCryptoStatisticsResult(String cryptoName, Instant from, Instant to, int span) {
+        PriceStatistics.checkSpan(span);
         Optional<Crypto> cryptoOptional = CryptoPriceValues.getCryptoData(cryptoName, pricesFolder);
         if (cryptoOptional.isEmpty()) {
             return null;
         }
         Crypto crypto = cryptoOptional.get();
-        return createLimits(crypto, days, month, years);
+        SeriesWindow window = SeriesWindow.between(crypto.getSeries(), from, to);
+        StringBuilder key = appendVersion(new StringBuilder("statistics"), crypto)
+            .append('@').append(window.getFrom()).append('-').append(window.getTo()).append('#').append(span);
+        return resultCache.get(key.toString(), () -> createStatistics(crypto, window, span), deadline());
+    }
+
+    public List<String> getSupportedCryptos() {
+        return cryptos;
     }
 
     public boolean isSupportedCrypto(String cryptoName) {
         LOG.debug("Check crypto with name {}", cryptoName);
-        return cryptos.contains(cryptoName);
+        return supportedCryptos.contains(cryptoName);
     }
 
     public Crypto getCryptoData(String cryptoName) {
@@ -81,93 +265,377 @@ public class CryptoServiceImpl implements CryptoService {
 
     @Override
     public List<CryptoNormalizedRange> getAllCryptoByNormalizedRange() {
-        LOG.debug("Start to create normalized range data");
-        List<CryptoNormalizedRange> result = new ArrayList<>();
-        for (String cryptoName : cryptos) {
-            Optional<Crypto> cryptoOptional = CryptoPriceValues.getCryptoData(cryptoName, pricesFolder);
-            if (cryptoOptional.isEmpty()) {
-                continue;
+        return getAllCryptoByNormalizedRangeResult().getValue();
+    }
+
+    /**
+     * Normalized ranges of all cryptos, cached by versions of the cryptos
+     */
+    public VersionedResult<List<CryptoNormalizedRange>> getAllCryptoByNormalizedRangeResult() {
+        long deadline = deadline();
+        List<Crypto> loaded = getLoadedCryptos(deadline);
+        StringBuilder key = new StringBuilder("normalizedRange");
+        loaded.forEach(crypto -> appendVersion(key, crypto));
+        return resultCache.get(key.toString(), () -> admission.call(() -> {
+            LOG.debug("Start to create normalized range data");
+            List<CryptoNormalizedRange> result = fanOut.map(loaded, crypto -> {
+                long range = calculateNormalizedRange(SeriesWindow.of(crypto.getSeries()));
+                return new CryptoNormalizedRange(crypto.getName(), range);
+            }, deadline);
+            LOG.debug("size of result list: {}", result.size());
+            return result.stream()
+                .sorted(Comparator.comparingLong(CryptoNormalizedRange::getRangeValue).reversed())
+                .collect(Collectors.toList());
+        }), deadline);
+    }
+
+    @Override
+    public CryptoNormalizedRange getCryptoByHighestNormalizedRange(String day, String month, String year) {
+        return getCryptoByHighestNormalizedRangeResult(day, month, year).getValue();
+    }
+
+    /**
+     * Crypto with the highest normalized range on the date, cached by the date and versions of the cryptos
+     */
+    public VersionedResult<CryptoNormalizedRange> getCryptoByHighestNormalizedRangeResult(String day, String month, String year) {
+        LocalDate wantedDate = DateUtil.specificDay(day, month, year);
+        long deadline = deadline();
+        List<Crypto> loaded = getLoadedCryptos(deadline);
+        StringBuilder key = new StringBuilder("highest|").append(wantedDate);
+        loaded.forEach(crypto -> appendVersion(key, crypto));
+        return resultCache.get(key.toString(), () -> admission.call(() -> {
+            LOG.debug("Start to find highest normalized range for specific day: {}", wantedDate);
+            List<CryptoNormalizedRange> rangeList = fanOut.map(loaded, crypto -> {
+                PriceRollup rollup = crypto.getRollup(RollupResolution.DAY);
+                int bucket = Objects.isNull(rollup) ? -1 : rollup.indexOf(wantedDate.toEpochDay());
+                if (bucket < 0) {
+                    return null;
+                }
+                long range = PriceUtil.normalizedRange(rollup.low(bucket), rollup.high(bucket));
+                return new CryptoNormalizedRange(crypto.getName(), range);
+            }, deadline);
+            return rangeList.stream()
+                .filter(Objects::nonNull)
+                .max(Comparator.comparingLong(CryptoNormalizedRange::getRangeValue)).orElse(new CryptoNormalizedRange());
+        }), deadline);
+    }
+
+    /**
+     * Limits and normalized ranges of several periods of time for several cryptos.
+     * All windows of a crypto end at the newest point, so they are computed in one sweep from the shortest
+     * to the longest, each window only adds points before the previous one.
+     *
+     * @param cryptoNames - requested cryptos, should be supported
+     * @return results in order of the cryptos, windows in order of the request
+     */
+    public List<CryptoBatchResult> getBatch(List<String> cryptoNames, List<CryptoWindow> windows, boolean normalizedRange) {
+        List<Instant> cutoffs = windows.stream()
+            .map(window -> DateUtil.periodStart(window.getDays(), window.getMonth(), window.getYears()))
+            .collect(Collectors.toList());
+        long deadline = deadline();
+        List<Crypto> loaded = getLoadedCryptos(cryptoNames, deadline);
+        List<List<SeriesWindow>> cryptoWindows = new ArrayList<>(loaded.size());
+        StringBuilder key = new StringBuilder("batch|").append(normalizedRange);
+        for (Crypto crypto : loaded) {
+            List<SeriesWindow> series = new ArrayList<>(cutoffs.size());
+            appendVersion(key, crypto);
+            for (Instant cutoff : cutoffs) {
+                SeriesWindow window = DateUtil.filterDataByTimePeriod(crypto.getSeries(), cutoff);
+                series.add(window);
+                key.append('@').append(window.getFrom());
             }
-            CryptoNormalizedRange cryptoRange = new CryptoNormalizedRange();
-            Crypto crypto = cryptoOptional.get();
-            cryptoRange.setName(cryptoName);
-            cryptoRange.setRange(calculateNormalizedRange(crypto.getData()));
-            result.add(cryptoRange);
+            cryptoWindows.add(series);
         }
-        LOG.debug("size of result list: {}", result.size());
-        return result.stream()
-            .sorted((d1, d2) -> Double.compare(Double.parseDouble(d2.getRange()), Double.parseDouble(d1.getRange())))
-            .collect(Collectors.toList());
+        return resultCache.get(key.toString(), () -> admission.call(() -> fanOut.map(positions(loaded.size()), i -> {
+            Crypto crypto = loaded.get(i);
+            List<CryptoWindowResult> results = createWindowResults(crypto, windows, cryptoWindows.get(i), normalizedRange);
+            return new CryptoBatchResult(crypto.getName(), results);
+        }, deadline)), deadline).getValue();
     }
 
     @Override
-    public CryptoNormalizedRange getCryptoByHighestNormalizedRange(String day, String month, String year) {
-        LOG.debug("Start to find highest normalized range for specific day");
-        List<CryptoNormalizedRange> rangeList = new ArrayList<>();
-        for (String cryptoName : cryptos) {
-            Optional<Crypto> cryptoOptional = CryptoPriceValues.getCryptoData(cryptoName, pricesFolder);
-            if (cryptoOptional.isEmpty()) {
-                continue;
+    public CryptoCorrelation getCorrelation(List<String> cryptoNames, RollupResolution resolution, Instant from, Instant to) {
+        return getCorrelationResult(cryptoNames, resolution, from, to).getValue();
+    }
+
+    /**
+     * Correlation matrix of the cryptos, see {@link CorrelationMatrix}. Cached by versions of the cryptos,
+     * resolution and time range, so the same request is computed once until prices change.
+     *
+     * @param cryptoNames - requested cryptos, should be supported
+     */
+    public VersionedResult<CryptoCorrelation> getCorrelationResult(List<String> cryptoNames, RollupResolution resolution,
+                                                                   Instant from, Instant to) {
+        long deadline = deadline();
+        List<Crypto> loaded = getLoadedCryptos(cryptoNames, deadline);
+        StringBuilder key = new StringBuilder("correlation|").append(resolution)
+            .append('@').append(Objects.isNull(from) ? "" : from.toEpochMilli())
+            .append('-').append(Objects.isNull(to) ? "" : to.toEpochMilli());
+        loaded.forEach(crypto -> appendVersion(key, crypto));
+        return resultCache.get(key.toString(),
+            () -> admission.call(() -> createCorrelation(loaded, resolution, from, to, deadline)), deadline);
+    }
+
+    /**
+     * Adds ticks to the series of their cryptos and appends them to the prices files, see {@link CryptoPriceValues#ingest}
+     *
+     * @param ticks - ticks of supported cryptos in order of arrival
+     * @return results in order of the first tick of each crypto
+     */
+    public List<CryptoIngestResult> ingest(List<CryptoData> ticks) {
+        Map<String, List<CryptoData>> cryptoTicks = new LinkedHashMap<>();
+        ticks.forEach(tick -> cryptoTicks.computeIfAbsent(tick.getName(), name -> new ArrayList<>()).add(tick));
+        List<CryptoIngestResult> results = new ArrayList<>(cryptoTicks.size());
+        for (Map.Entry<String, List<CryptoData>> entry : cryptoTicks.entrySet()) {
+            try {
+                results.add(CryptoPriceValues.ingest(entry.getKey(), entry.getValue()));
+            } catch (IOException e) {
+                throw new IllegalStateException("Ticks of " + entry.getKey() + " are not ingested: " + e.getMessage(), e);
             }
-            Crypto crypto = cryptoOptional.get();
-            List<CryptoData> data = DateUtil.filterDataBySpecificDay(crypto.getData(), day, month, year);
-            if (data.isEmpty()) {
-                continue;
+        }
+        return results;
+    }
+
+    /**
+     * Subscribes to updates of the cryptos, see {@link PriceUpdateHub}
+     *
+     * @param cryptoNames - supported cryptos, all cryptos if empty
+     * @throws IllegalStateException if there are too many subscriptions
+     */
+    public PriceUpdateHub.Subscription subscribe(List<String> cryptoNames, PriceUpdateHub.Sink sink) {
+        List<Crypto> current = (cryptoNames.isEmpty() ? cryptos : cryptoNames).stream()
+            .map(CryptoPriceValues::getLoadedCryptoData)
+            .flatMap(Optional::stream)
+            .collect(Collectors.toList());
+        return updates.subscribe(cryptoNames, current, sink);
+    }
+
+    /**
+     * @return max time of a subscription to updates in milliseconds, client reconnects after it
+     */
+    public long getUpdatesTimeout() {
+        return updatesTimeout;
+    }
+
+    /**
+     * @return true if ticks can be posted to the prices files, disabled by default
+     */
+    public boolean isIngestEnabled() {
+        return ingestEnabled;
+    }
+
+    public int getResultsGzipMinBytes() {
+        return resultsGzipMinBytes;
+    }
+
+    /**
+     * @return seconds clients should wait before retrying a request answered with 503
+     */
+    public int getResultsRetryAfter() {
+        return resultsRetryAfter;
+    }
+
+    public ResultCache getResultCache() {
+        return resultCache;
+    }
+
+    private List<Crypto> getLoadedCryptos(long deadline) {
+        return getLoadedCryptos(cryptos, deadline);
+    }
+
+    /**
+     * Loads of not loaded cryptos run in parallel, crypto which is not loaded by the deadline is skipped.
+     *
+     * @return currently loaded cryptos in order of the names, results are computed and keyed from this snapshot
+     */
+    private List<Crypto> getLoadedCryptos(List<String> cryptoNames, long deadline) {
+        List<CompletableFuture<Crypto>> loads = new ArrayList<>(cryptoNames.size());
+        for (String cryptoName : cryptoNames) {
+            loads.add(CryptoPriceValues.getCryptoDataAsync(cryptoName, pricesFolder));
+        }
+        List<Crypto> loaded = new ArrayList<>(cryptoNames.size());
+        for (int i = 0; i < loads.size(); i++) {
+            String cryptoName = cryptoNames.get(i);
+            try {
+                loaded.add(loads.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                LOG.warn("{} crypto is not loaded by the request deadline", cryptoName);
+                CryptoPriceValues.getLoadedCryptoData(cryptoName).ifPresent(loaded::add);
+            } catch (ExecutionException e) {
+                LOG.warn("{} crypto is not loaded: {}", cryptoName, e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for cryptos", e);
             }
-            String range = calculateNormalizedRange(data);
-            rangeList.add(new CryptoNormalizedRange(cryptoName, range));
         }
-        return rangeList.stream()
-            .max(Comparator.comparingDouble(d -> Double.parseDouble(d.getRange()))).orElse(new CryptoNormalizedRange());
+        return loaded;
+    }
+
+    /**
+     * @return {@link System#nanoTime()} value the request results have to be ready by
+     */
+    private long deadline() {
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(resultsTimeout);
+    }
+
+    private static List<Integer> positions(int size) {
+        return IntStream.range(0, size).boxed().collect(Collectors.toList());
     }
 
-    private String calculateNormalizedRange(List<CryptoData> data) {
+    private static StringBuilder appendVersion(StringBuilder key, Crypto crypto) {
+        return key.append('|').append(crypto.getName()).append(':').append(crypto.getVersion());
+    }
+
+    /**
+     * Limits and normalized range of the whole history, limits are cached as the limits of the crypto
+     */
+    CryptoUpdate createUpdate(Crypto crypto) {
+        SeriesWindow window = SeriesWindow.of(crypto.getSeries());
+        String key = appendVersion(new StringBuilder("cryptoLimits"), crypto).append('@').append(window.getFrom()).toString();
+        CryptoLimits limits = resultCache.get(key, () -> createLimits(crypto, window), deadline()).getValue();
+        String range = window.isEmpty() ? null : PriceUtil.formatRange(calculateNormalizedRange(window));
+        return new CryptoUpdate(crypto.getName(), crypto.getVersion(), limits, range);
+    }
+
+    /**
+     * @return (max - min) / min of the window prices scaled by 10^{@link PriceUtil#RANGE_SCALE}
+     */
+    static long calculateNormalizedRange(SeriesWindow data) {
         LOG.debug("Start to calculate, data size: {}", data.size());
-        CryptoData minData = getMinCrypto(data);
-        CryptoData maxData = getMaxCrypto(data);
-        LOG.debug("Max: {} | Min: {}", maxData, minData);
-        BigDecimal minPrice = new BigDecimal(minData.getPrice());
-        BigDecimal maxPrice = new BigDecimal(maxData.getPrice());
-        BigDecimal result = maxPrice.subtract(minPrice);
-        result = result.divide(minPrice, 2, RoundingMode.HALF_EVEN);
-        return result.toString();
-    }
-
-    private CryptoLimits createLimits(Crypto crypto, String days, String month, String years) {
-        List<CryptoData> data = DateUtil.filterDataByTimePeriod(crypto.getData(), days, month, years);
-        if (data.isEmpty()) {
-            return new CryptoLimits(crypto.getName());
+        PriceSeries series = data.getSeries();
+        return PriceUtil.normalizedRange(series.price(data.indexOfMin()), series.price(data.indexOfMax()));
+    }
+
+    /**
+     * @param seriesWindows - windows of the crypto series which end at its newest point
+     * @return limits and optionally normalized range of each window
+     */
+    static List<CryptoWindowResult> createWindowResults(Crypto crypto, List<CryptoWindow> windows,
+                                                        List<SeriesWindow> seriesWindows, boolean normalizedRange) {
+        PriceSeries series = crypto.getSeries();
+        Integer[] order = new Integer[seriesWindows.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
         }
-        String cryptoName = crypto.getName();
-        CryptoData max = getMaxCrypto(data);
-        max.setName(cryptoName);
-        CryptoData min = getMinCrypto(data);
-        min.setName(cryptoName);
-        CryptoData newest = getNewestCrypto(data);
-        newest.setName(cryptoName);
-        CryptoData oldest = getOldestCrypto(data);
-        oldest.setName(cryptoName);
-        LOG.debug("Find data: max: {}, min: {}, newest: {}, oldest: {}", max, min, newest, oldest);
-        return new CryptoLimits(crypto.getName(), newest, oldest, min, max);
+        Arrays.sort(order, Comparator.comparingInt((Integer i) -> seriesWindows.get(i).getFrom()).reversed());
+        CryptoWindowResult[] results = new CryptoWindowResult[order.length];
+        int from = series.size();
+        int min = -1;
+        int max = -1;
+        for (int i : order) {
+            SeriesWindow window = seriesWindows.get(i);
+            if (window.getTo() != series.size()) {
+                throw new IllegalArgumentException("Window should end at the newest point: " + window.getTo());
+            }
+            if (window.getFrom() < from) {
+                min = better(series, series.indexOfMin(window.getFrom(), from), min, true);
+                max = better(series, series.indexOfMax(window.getFrom(), from), max, false);
+                from = window.getFrom();
+            }
+            if (window.isEmpty()) {
+                results[i] = new CryptoWindowResult(windows.get(i), new CryptoLimits(crypto.getName()), null);
+                continue;
+            }
+            CryptoLimits limits = createLimits(crypto, window, min, max);
+            String range = normalizedRange ? PriceUtil.formatRange(PriceUtil.normalizedRange(series.price(min), series.price(max))) : null;
+            results[i] = new CryptoWindowResult(windows.get(i), limits, range);
+        }
+        return Arrays.asList(results);
     }
 
-    private CryptoData getMinCrypto(List<CryptoData> data) {
-        return data.stream()
-            .min(Comparator.comparingDouble(d -> Double.parseDouble(d.getPrice()))).orElse(null);
+    /**
+     * @param added   - extreme of the points added before the window, may be -1
+     * @param current - extreme of the window, may be -1
+     * @return extreme of both, the added one if prices are equal as it is the earlier point
+     */
+    private static int better(PriceSeries series, int added, int current, boolean min) {
+        if (added < 0 || current < 0) {
+            return added < 0 ? current : added;
+        }
+        long addedPrice = series.price(added);
+        long currentPrice = series.price(current);
+        return (min ? addedPrice <= currentPrice : addedPrice >= currentPrice) ? added : current;
     }
 
-    private CryptoData getMaxCrypto(List<CryptoData> data) {
-        return data.stream()
-            .max(Comparator.comparingDouble(d -> Double.parseDouble(d.getPrice()))).orElse(null);
+    private CryptoCorrelation createCorrelation(List<Crypto> loaded, RollupResolution resolution, Instant from,
+                                                Instant to, long deadline) {
+        List<PriceRollup> rollups = loaded.stream()
+            .map(crypto -> Optional.ofNullable(crypto.getRollup(resolution))
+                .orElseThrow(() -> new IllegalStateException(resolution + " rollup of " + crypto.getName() + " is not built")))
+            .collect(Collectors.toList());
+        long[] grid = CorrelationMatrix.grid(rollups, Objects.isNull(from) ? Long.MIN_VALUE : from.toEpochMilli(),
+            Objects.isNull(to) ? Long.MAX_VALUE : to.toEpochMilli());
+        List<double[]> returns = fanOut.map(rollups, rollup -> CorrelationMatrix.standardizedReturns(rollup, grid), deadline);
+        CryptoCorrelation correlation = new CryptoCorrelation(resolution,
+            loaded.stream().map(Crypto::getName).collect(Collectors.toList()));
+        if (grid.length > 0) {
+            correlation.setOldest(Instant.ofEpochMilli(grid[0]));
+            correlation.setNewest(Instant.ofEpochMilli(grid[grid.length - 1]));
+            correlation.setReturns(grid.length - 1);
+        }
+        correlation.setCorrelations(CorrelationMatrix.correlations(returns, fanOut, deadline));
+        return correlation;
     }
 
-    private CryptoData getOldestCrypto(List<CryptoData> data) {
-        return data.stream()
-            .min(Comparator.comparingLong(d -> d.getDate().getEpochSecond())).orElse(null);
+    /**
+     * Statistics of the window from prefix sums of the crypto series, only name and span for empty window
+     */
+    static CryptoStatistics createStatistics(Crypto crypto, SeriesWindow window, int span) {
+        CryptoStatistics result = new CryptoStatistics(crypto.getName());
+        result.setSpan(span);
+        if (window.isEmpty()) {
+            return result;
+        }
+        PriceSeries series = window.getSeries();
+        PriceStatistics statistics = crypto.getStatistics();
+        int from = window.getFrom();
+        int to = window.getTo();
+        long oldest = series.price(from);
+        result.setOldest(Instant.ofEpochMilli(series.timestamp(from)));
+        result.setNewest(Instant.ofEpochMilli(series.timestamp(to - 1)));
+        result.setCount(window.size());
+        result.setMean(priceOf(statistics.mean(from, to)));
+        result.setStandardDeviation(priceOf(statistics.standardDeviation(from, to)));
+        result.setChange(oldest <= 0 ? null : (double) series.price(to - 1) / oldest - 1);
+        result.setVolatility(valueOf(statistics.volatility(from, to)));
+        result.setSma(priceOf(statistics.mean(Math.max(from, to - span), to)));
+        result.setEma(priceOf(PriceStatistics.exponentialAverage(series, from, to, span)));
+        return result;
     }
 
-    private CryptoData getNewestCrypto(List<CryptoData> data) {
-        return data.stream()
-            .max(Comparator.comparingLong(d -> d.getDate().getEpochSecond())).orElse(null);
+    /**
+     * @return the value, null if it is not defined
+     */
+    private static Double valueOf(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
+    /**
+     * @return the value rounded to {@link PriceUtil#PRICE_SCALE} digits like prices, null if it is not defined
+     */
+    private static Double priceOf(double value) {
+        return Double.isNaN(value) ? null
+            : BigDecimal.valueOf(value).setScale(PriceUtil.PRICE_SCALE, RoundingMode.HALF_EVEN).doubleValue();
+    }
+
+    /**
+     * @return oldest, newest, min and max points of the window, only name for empty window
+     */
+    static CryptoLimits createLimits(Crypto crypto, SeriesWindow data) {
+        if (data.isEmpty()) {
+            return new CryptoLimits(crypto.getName());
+        }
+        return createLimits(crypto, data, data.indexOfMin(), data.indexOfMax());
+    }
+
+    private static CryptoLimits createLimits(Crypto crypto, SeriesWindow data, int indexOfMin, int indexOfMax) {
+        String cryptoName = crypto.getName();
+        PriceSeries series = data.getSeries();
+        CryptoData max = series.toCryptoData(indexOfMax, cryptoName);
+        CryptoData min = series.toCryptoData(indexOfMin, cryptoName);
+        CryptoData newest = series.toCryptoData(data.indexOfNewest(), cryptoName);
+        CryptoData oldest = series.toCryptoData(data.indexOfOldest(), cryptoName);
+        LOG.debug("Find data: max: {}, min: {}, newest: {}, oldest: {}", max, min, newest, oldest);
+        return new CryptoLimits(crypto.getName(), newest, oldest, min, max);
     }
 }
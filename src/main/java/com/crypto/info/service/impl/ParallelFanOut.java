@@ -0,0 +1,100 @@
+package com.crypto.info.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/***
+ * Applies function to list items on a bounded pool. Items are split into at most parallelism chunks
+ * of consecutive items, so small per-item work is not drowned in task overhead, and results keep items order.
+ * When the pool queue is full the caller computes the chunk itself.
+ */
+final class ParallelFanOut implements AutoCloseable {
+
+    private static final int QUEUE_PER_THREAD = 64;
+
+    private final int parallelism;
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * @param parallelism - number of pool threads, 1 computes everything on the caller thread
+     */
+    ParallelFanOut(int parallelism, String threadName) {
+        this.parallelism = parallelism;
+        if (parallelism <= 1) {
+            executor = null;
+            return;
+        }
+        executor = new ThreadPoolExecutor(parallelism, parallelism, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(parallelism * QUEUE_PER_THREAD), new ThreadFactory() {
+                private final AtomicInteger counter = new AtomicInteger();
+
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, threadName + "-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            }, new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * @param deadlineNanos - {@link System#nanoTime()} value all the results have to be ready by
+     * @return results in order of the items
+     * @throws IllegalStateException if results are not ready by the deadline
+     */
+    <T, R> List<R> map(List<T> items, Function<T, R> function, long deadlineNanos) {
+        int chunks = Math.min(parallelism, items.size());
+        if (chunks <= 1) {
+            return mapChunk(items, function);
+        }
+        List<CompletableFuture<List<R>>> futures = new ArrayList<>(chunks);
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            List<T> chunkItems = items.subList(items.size() * chunk / chunks, items.size() * (chunk + 1) / chunks);
+            futures.add(CompletableFuture.supplyAsync(() -> mapChunk(chunkItems, function), executor));
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            futures.forEach(future -> future.cancel(false));
+            throw new IllegalStateException("Results of " + items.size() + " items are not ready by the deadline", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for results", e);
+        }
+        List<R> results = new ArrayList<>(items.size());
+        futures.forEach(future -> results.addAll(future.join()));
+        return results;
+    }
+
+    @Override
+    public void close() {
+        if (Objects.nonNull(executor)) {
+            executor.shutdownNow();
+        }
+    }
+
+    private static <T, R> List<R> mapChunk(List<T> items, Function<T, R> function) {
+        List<R> results = new ArrayList<>(items.size());
+        for (T item : items) {
+            results.add(function.apply(item));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,273 @@
+package com.crypto.info.service.impl;
+
+import com.crypto.info.metrics.PriceMetrics;
+import com.crypto.info.model.Crypto;
+import com.crypto.info.model.CryptoData;
+import com.crypto.info.model.CryptoUpdate;
+import com.crypto.info.model.PriceSeries;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/***
+ * Pushes updates of loaded and ingested cryptos to subscribers.
+ * Cryptos published during the interval are coalesced, every changed crypto is computed once per interval
+ * and the update is shared by all its subscribers. Nothing is computed for cryptos without subscribers.
+ * Every subscriber has at most one pending update per crypto: a subscriber which reads slower than updates come
+ * gets the newest limits with pending ticks joined, ticks beyond the limit are dropped and counted,
+ * so memory of a slow subscriber stays bounded. One subscriber is sent by at most one thread at a time.
+ */
+public class PriceUpdateHub implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PriceUpdateHub.class);
+
+    private final Function<Crypto, CryptoUpdate> updates;
+    private final int maxTicks;
+    private final int maxSubscribers;
+    private final ScheduledExecutorService dispatcher;
+    private final ExecutorService senders;
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    /**
+     * Cryptos published since the previous dispatch, the newest version of each
+     */
+    private final Map<String, Crypto> changed = new HashMap<>();
+    /**
+     * Newest timestamp of the last dispatched version of each crypto, used only by the dispatcher thread
+     */
+    private final Map<String, Long> dispatchedTimestamps = new HashMap<>();
+
+    /**
+     * @param updates        - computes limits and normalized range of the crypto, ticks are added by the hub
+     * @param intervalMillis - interval of dispatching coalesced updates
+     * @param maxTicks       - max number of ticks in an update, older ticks are skipped
+     * @param maxSubscribers - max number of subscriptions at the same time
+     * @param senders        - number of threads sending updates to subscribers
+     */
+    public PriceUpdateHub(Function<Crypto, CryptoUpdate> updates, long intervalMillis, int maxTicks, int maxSubscribers,
+                          int senders) {
+        this.updates = updates;
+        this.maxTicks = maxTicks;
+        this.maxSubscribers = maxSubscribers;
+        this.dispatcher = Executors.newSingleThreadScheduledExecutor(threadFactory("price-updates"));
+        this.senders = Executors.newFixedThreadPool(senders, threadFactory("price-updates-sender"));
+        dispatcher.scheduleWithFixedDelay(this::dispatch, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Registers new version of the crypto, it is dispatched at the end of the interval
+     */
+    public void published(Crypto crypto) {
+        synchronized (changed) {
+            changed.put(crypto.getName(), crypto);
+        }
+    }
+
+    /**
+     * Subscribes to updates of the cryptos, updates of their current versions are sent first without ticks
+     *
+     * @param cryptoNames - subscribed cryptos, all cryptos if empty
+     * @param current     - current versions of the subscribed cryptos which are loaded
+     * @param sink        - receives updates on a sender thread, subscription is closed if it fails
+     * @throws IllegalStateException if there are too many subscriptions
+     */
+    public Subscription subscribe(Collection<String> cryptoNames, List<Crypto> current, Sink sink) {
+        Subscription subscription = new Subscription(new HashSet<>(cryptoNames), sink);
+        synchronized (subscriptions) {
+            if (subscriptions.size() >= maxSubscribers) {
+                throw new IllegalStateException("Too many subscriptions to price updates: " + subscriptions.size());
+            }
+            subscriptions.add(subscription);
+        }
+        current.forEach(crypto -> subscription.offer(updates.apply(crypto)));
+        return subscription;
+    }
+
+    public int getSubscriptions() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Computes updates of the cryptos changed during the interval and offers them to subscribers
+     */
+    void dispatch() {
+        List<Crypto> cryptos;
+        synchronized (changed) {
+            if (changed.isEmpty()) {
+                return;
+            }
+            cryptos = new ArrayList<>(changed.values());
+            changed.clear();
+        }
+        for (Crypto crypto : cryptos) {
+            try {
+                dispatch(crypto);
+            } catch (RuntimeException e) {
+                LOG.error("Update of {} crypto is not sent: {}", crypto.getName(), e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Stops dispatching and closes all subscriptions
+     */
+    @Override
+    public void close() {
+        dispatcher.shutdownNow();
+        senders.shutdownNow();
+        new ArrayList<>(subscriptions).forEach(Subscription::close);
+    }
+
+    private void dispatch(Crypto crypto) {
+        PriceSeries series = crypto.getSeries();
+        Long dispatched = dispatchedTimestamps.put(crypto.getName(), series.lastTimestamp());
+        List<Subscription> subscribed = subscriptions.stream()
+            .filter(subscription -> subscription.isSubscribed(crypto.getName()))
+            .collect(Collectors.toList());
+        if (subscribed.isEmpty()) {
+            return;
+        }
+        CryptoUpdate update = updates.apply(crypto);
+        int from = Objects.isNull(dispatched) ? series.size() : series.upperBound(dispatched);
+        int first = Math.max(from, series.size() - maxTicks);
+        List<CryptoData> ticks = new ArrayList<>(series.size() - first);
+        for (int i = first; i < series.size(); i++) {
+            ticks.add(series.toCryptoData(i, null));
+        }
+        update.setTicks(ticks);
+        update.setSkippedTicks(first - from);
+        subscribed.forEach(subscription -> subscription.offer(update));
+    }
+
+    /**
+     * @return update with limits of the newer one and ticks of both, only the newest ticks are kept
+     */
+    private CryptoUpdate join(CryptoUpdate older, CryptoUpdate newer) {
+        CryptoUpdate joined = new CryptoUpdate(newer.getName(), newer.getVersion(), newer.getLimits(), newer.getNormalizedRange());
+        List<CryptoData> ticks = new ArrayList<>();
+        if (Objects.nonNull(older.getTicks())) {
+            ticks.addAll(older.getTicks());
+        }
+        if (Objects.nonNull(newer.getTicks())) {
+            ticks.addAll(newer.getTicks());
+        }
+        int dropped = Math.max(0, ticks.size() - maxTicks);
+        joined.setTicks(new ArrayList<>(ticks.subList(dropped, ticks.size())));
+        joined.setSkippedTicks(older.getSkippedTicks() + newer.getSkippedTicks() + dropped);
+        PriceMetrics.recordUpdateTicksDropped(newer.getName(), dropped);
+        return joined;
+    }
+
+    private static ThreadFactory threadFactory(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /***
+     * Receiver of the updates of one subscription, e.g. server-sent events emitter
+     */
+    public interface Sink {
+
+        void send(CryptoUpdate update) throws IOException;
+    }
+
+    /***
+     * Subscription with updates waiting to be sent, the newest one per crypto
+     */
+    public final class Subscription implements AutoCloseable {
+
+        private final Set<String> cryptoNames;
+        private final Sink sink;
+        private final Map<String, CryptoUpdate> pending = new LinkedHashMap<>();
+        private boolean sending;
+        private boolean closed;
+
+        private Subscription(Set<String> cryptoNames, Sink sink) {
+            this.cryptoNames = cryptoNames;
+            this.sink = sink;
+        }
+
+        boolean isSubscribed(String cryptoName) {
+            return cryptoNames.isEmpty() || cryptoNames.contains(cryptoName);
+        }
+
+        /**
+         * Unsubscribes, pending updates are dropped
+         */
+        @Override
+        public void close() {
+            synchronized (this) {
+                closed = true;
+                pending.clear();
+            }
+            subscriptions.remove(this);
+        }
+
+        private void offer(CryptoUpdate update) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                pending.merge(update.getName(), update, PriceUpdateHub.this::join);
+                if (sending) {
+                    return;
+                }
+                sending = true;
+            }
+            try {
+                senders.execute(this::send);
+            } catch (RejectedExecutionException e) {
+                close();
+            }
+        }
+
+        /**
+         * Sends pending updates until there are none, runs on a sender thread
+         */
+        private void send() {
+            while (true) {
+                List<CryptoUpdate> updates;
+                synchronized (this) {
+                    if (closed || pending.isEmpty()) {
+                        sending = false;
+                        return;
+                    }
+                    updates = new ArrayList<>(pending.values());
+                    pending.clear();
+                }
+                for (CryptoUpdate update : updates) {
+                    try {
+                        sink.send(update);
+                    } catch (IOException | RuntimeException e) {
+                        LOG.debug("Subscription to price updates is closed: {}", e.getMessage());
+                        close();
+                        return;
+                    }
+                }
+            }
+        }
+    }
+}
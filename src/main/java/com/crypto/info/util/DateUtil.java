@@ -1,17 +1,15 @@
 package com.crypto.info.util;
 
-import com.crypto.info.model.CryptoData;
+import com.crypto.info.model.PriceSeries;
+import com.crypto.info.model.SeriesWindow;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.time.DateTimeException;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
-import java.time.chrono.ChronoLocalDate;
 import java.time.temporal.ChronoUnit;
-import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 /**
  * Utility class for working with timestamps
@@ -25,51 +23,77 @@ public class DateUtil {
     }
 
     /**
-     * Returns filtered data by period of time
+     * Returns window of the data for period of time.
+     * Cutoff is calculated once and found by binary search, data is not copied.
      *
-     * @param data             - data to filter
+     * @param data             - data to filter, sorted by timestamp
      * @param days,month,years - period of time from now to past
-     * @return filtered data
+     * @return points after the latest of requested cutoffs
      */
-    public static List<CryptoData> filterDataByTimePeriod(List<CryptoData> data, String days, String month, String years) {
-        LOG.debug("Start filter data, list size: {}, date: years - {}, month - {}, days - {}", data.size(), years, month, days);
-        List<CryptoData> result = data;
+    public static SeriesWindow filterDataByTimePeriod(PriceSeries data, String days, String month, String years) {
+        LOG.debug("Start filter data, series size: {}, date: years - {}, month - {}, days - {}", data.size(), years, month, days);
+        Instant cutoff;
         try {
-            if (Objects.nonNull(years) && Integer.parseInt(years) > 0) {
-                result = filterDataByYears(result, Integer.parseInt(years));
-            }
-            if (Objects.nonNull(month) && Integer.parseInt(month) > 0) {
-                result = filterDataByMonth(result, Integer.parseInt(month));
-            }
-            if (Objects.nonNull(days) && Integer.parseInt(days) > 0) {
-                result = filterDataByDays(result, Integer.parseInt(days));
-            }
+            cutoff = periodStart(days, month, years);
         } catch (NumberFormatException e) {
             throw new RuntimeException(e.getMessage(), e);
         }
-        return result;
+        return filterDataByTimePeriod(data, cutoff);
+    }
+
+    /**
+     * @param data   - data to filter, sorted by timestamp
+     * @param cutoff - start of the period, see {@link #periodStart}, null for the whole data
+     * @return points after the cutoff
+     */
+    public static SeriesWindow filterDataByTimePeriod(PriceSeries data, Instant cutoff) {
+        if (Objects.isNull(cutoff)) {
+            return SeriesWindow.of(data);
+        }
+        return new SeriesWindow(data, data.upperBound(cutoff.toEpochMilli()), data.size());
+    }
+
+    /**
+     * Returns start of the period from now to past, each non-positive value is ignored
+     *
+     * @param days,month,years - period of time from now to past
+     * @return start of the period or null if the period is not limited
+     */
+    public static Instant periodStart(String days, String month, String years) {
+        LocalDate now = LocalDate.now();
+        Instant cutoff = null;
+        if (Objects.nonNull(years) && Integer.parseInt(years) > 0) {
+            cutoff = latest(cutoff, now.minus(Integer.parseInt(years), ChronoUnit.YEARS));
+        }
+        if (Objects.nonNull(month) && Integer.parseInt(month) > 0) {
+            cutoff = latest(cutoff, now.minus(Integer.parseInt(month), ChronoUnit.MONTHS));
+        }
+        if (Objects.nonNull(days) && Integer.parseInt(days) > 0) {
+            cutoff = latest(cutoff, now.minus(Integer.parseInt(days), ChronoUnit.DAYS));
+        }
+        return cutoff;
     }
 
     /***
      *  Filter incoming data by specific date
-     * @param data - data with crypto information
+     * @param data - data with crypto information, sorted by timestamp
      * @param day,month,year - date to filter
-     * @return filtered data
+     * @return window of points of the date in system time zone
      */
-    public static List<CryptoData> filterDataBySpecificDay(List<CryptoData> data, String day, String month, String year) {
-        List<CryptoData> result = data;
-        LocalDate wantedDate = LocalDate.of(getValidYear(year), getValidMonth(month), getValidDay(day));
+    public static SeriesWindow filterDataBySpecificDay(PriceSeries data, String day, String month, String year) {
+        LocalDate wantedDate = specificDay(day, month, year);
         LOG.debug("Filter data by specific date: {}, day: {}, month: {}, year: {}", wantedDate, day, month, year);
-        try {
-            if (!result.isEmpty()) {
-                result = result.stream()
-                    .filter(d -> wantedDate.isEqual(ChronoLocalDate.from(d.getDate().atZone(ZoneId.systemDefault()))))
-                    .collect(Collectors.toList());
-            }
-        } catch (NumberFormatException | DateTimeException e) {
-            throw new RuntimeException(e.getMessage(), e);
-        }
-        return result;
+        long dayStart = wantedDate.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        long nextDayStart = wantedDate.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return new SeriesWindow(data, data.lowerBound(dayStart), data.lowerBound(nextDayStart));
+    }
+
+    /**
+     * @param day,month,year - date, each empty value is taken from the current date
+     * @return requested date
+     */
+    public static LocalDate specificDay(String day, String month, String year) {
+        return LocalDate.of(getValidYear(year), getValidMonth(month), getValidDay(day));
     }
 
     private static int getValidDay(String day) {
@@ -93,24 +117,8 @@ public class DateUtil {
         return Integer.parseInt(year);
     }
 
-    private static List<CryptoData> filterDataByYears(List<CryptoData> data, int years) {
-        return data.stream()
-            .filter(d -> d.getDate()
-                .isAfter(LocalDate.now().minus(years, ChronoUnit.YEARS).atStartOfDay(ZoneId.systemDefault()).toInstant()))
-            .collect(Collectors.toList());
-    }
-
-    private static List<CryptoData> filterDataByMonth(List<CryptoData> data, int month) {
-        return data.stream()
-            .filter(d -> d.getDate()
-                .isAfter(LocalDate.now().minus(month, ChronoUnit.MONTHS).atStartOfDay(ZoneId.systemDefault()).toInstant()))
-            .collect(Collectors.toList());
-    }
-
-    private static List<CryptoData> filterDataByDays(List<CryptoData> data, int days) {
-        return data.stream()
-            .filter(d -> d.getDate()
-                .isAfter(LocalDate.now().minus(days, ChronoUnit.DAYS).atStartOfDay(ZoneId.systemDefault()).toInstant()))
-            .collect(Collectors.toList());
+    private static Instant latest(Instant cutoff, LocalDate date) {
+        Instant start = date.atStartOfDay(ZoneId.systemDefault()).toInstant();
+        return Objects.isNull(cutoff) || start.isAfter(cutoff) ? start : cutoff;
     }
 }
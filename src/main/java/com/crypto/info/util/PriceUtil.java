@@ -0,0 +1,84 @@
+package com.crypto.info.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Utility class for working with fixed-point prices.
+ * Price is kept as a long value scaled by 10^{@link #PRICE_SCALE}.
+ */
+public class PriceUtil {
+
+    public static final int PRICE_SCALE = 8;
+    public static final int RANGE_SCALE = 2;
+    private static final long RANGE_MULTIPLIER = 100;
+
+    private PriceUtil() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * Converts decimal price text to fixed-point value
+     *
+     * @param price - price as it is written in prices file
+     * @return price scaled by 10^PRICE_SCALE
+     */
+    public static long parsePrice(String price) {
+        return new BigDecimal(price.trim()).setScale(PRICE_SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Converts fixed-point value to plain decimal text without trailing zeros,
+     * scale of the parsed text is not kept: "42110.00" is formatted as "42110"
+     *
+     * @param price - price scaled by 10^PRICE_SCALE
+     * @return price as text, e.g. "46813.21"
+     */
+    public static String formatPrice(long price) {
+        return toBigDecimal(price).stripTrailingZeros().toPlainString();
+    }
+
+    public static BigDecimal toBigDecimal(long price) {
+        return BigDecimal.valueOf(price, PRICE_SCALE);
+    }
+
+    /**
+     * Calculates (max - min) / min rounded half even to {@link #RANGE_SCALE} digits in long arithmetic.
+     * Result is the same as BigDecimal division with the same scale and rounding, which is used only
+     * if the prices are not positive or the difference overflows.
+     *
+     * @param minPrice,maxPrice - prices scaled by 10^PRICE_SCALE
+     * @return normalized range scaled by 10^RANGE_SCALE
+     */
+    public static long normalizedRange(long minPrice, long maxPrice) {
+        long difference = maxPrice - minPrice;
+        if (minPrice <= 0 || difference < 0 || difference > Long.MAX_VALUE / RANGE_MULTIPLIER) {
+            return toBigDecimal(maxPrice).subtract(toBigDecimal(minPrice))
+                .divide(toBigDecimal(minPrice), RANGE_SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+        }
+        long numerator = difference * RANGE_MULTIPLIER;
+        long quotient = numerator / minPrice;
+        long remainder = numerator % minPrice;
+        long toNext = minPrice - remainder;
+        if (remainder > toNext || (remainder == toNext && (quotient & 1) == 1)) {
+            quotient++;
+        }
+        return quotient;
+    }
+
+    /**
+     * @param range - normalized range scaled by 10^RANGE_SCALE
+     * @return range as text with RANGE_SCALE digits, e.g. "0.30"
+     */
+    public static String formatRange(long range) {
+        return BigDecimal.valueOf(range, RANGE_SCALE).toPlainString();
+    }
+
+    /**
+     * @param range - range as text, e.g. "0.30"
+     * @return normalized range scaled by 10^RANGE_SCALE
+     */
+    public static long parseRange(String range) {
+        return new BigDecimal(range.trim()).setScale(RANGE_SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+}
@@ -0,0 +1,159 @@
+package com.crypto.info;
+
+import com.crypto.info.loader.PriceFileAppender;
+import com.crypto.info.model.Crypto;
+import com.crypto.info.model.CryptoData;
+import com.crypto.info.model.CryptoIngestResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CryptoPriceValuesTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void getCryptoData_concurrentFirstRequests_shouldShareOneLoadPerCrypto() throws Exception {
+        String[] cryptos = {"SF1", "SF2"};
+        for (String cryptoName : cryptos) {
+            StringBuilder content = new StringBuilder("timestamp,symbol,price\n");
+            for (int i = 0; i < 10_000; i++) {
+                content.append(1641009600000L + i * 60_000L).append(',').append(cryptoName).append(",1.").append(i).append('\n');
+            }
+            Files.write(folder.resolve(cryptoName + "_values.csv"), content.toString().getBytes());
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<Optional<Crypto>>> results = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                String cryptoName = cryptos[i % cryptos.length];
+                results.add(executor.submit(() -> CryptoPriceValues.getCryptoData(cryptoName, folder.toString())));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                Optional<Crypto> crypto = results.get(i).get();
+                assertTrue(crypto.isPresent());
+                assertEquals(10_000, crypto.get().getSeries().size());
+                assertSame(results.get(i % cryptos.length).get().get(), crypto.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void loadData_snapshot_shouldParseOnlyAppendedLines() throws Exception {
+        Path file = folder.resolve("SN1_values.csv");
+        Files.write(file, "timestamp,symbol,price\n1641009600000,SN1,1.5\n1641013200000,SN1,2.5\n".getBytes());
+        CryptoPriceValues.setSnapshotFolder(folder.resolve("snapshots").toString());
+        try {
+            CryptoPriceValues.getCryptoData("SN1", folder.toString());
+            CryptoPriceValues.writeSnapshots();
+            CryptoPriceValues.unload("SN1");
+            Files.write(file, "1641016800000,SN1,0.5\n".getBytes(), StandardOpenOption.APPEND);
+
+            Crypto crypto = CryptoPriceValues.loadData("SN1");
+
+            assertEquals(3, crypto.getSeries().size());
+            assertEquals(50_000_000L, crypto.getSeries().price(2));
+            assertEquals(Files.size(file), crypto.getFileState().getOffset());
+            assertTrue(Files.exists(folder.resolve("snapshots").resolve("SN1_values.snapshot")));
+        } finally {
+            CryptoPriceValues.setSnapshotFolder(null);
+            CryptoPriceValues.unload("SN1");
+        }
+    }
+
+    @Test
+    void ingest_reject_shouldSkipOlderTicksAndAppendFileWithoutReload() throws Exception {
+        Path file = folder.resolve("IN1_values.csv");
+        Files.write(file, "timestamp,symbol,price\n1641009600000,IN1,1.5\n".getBytes());
+        CryptoPriceValues.getCryptoData("IN1", folder.toString());
+        CryptoPriceValues.setIngest(PriceFileAppender.SYNC_ALWAYS, 10, 1 << 20, CryptoPriceValues.INGEST_REJECT);
+        try {
+            CryptoIngestResult result = CryptoPriceValues.ingest("IN1", List.of(
+                tick(1641013200000L, "2.5"), tick(1641009600000L, "3"), tick(1641016800000L, "0.25")));
+
+            assertEquals(2, result.getAccepted());
+            assertEquals(1, result.getRejected());
+            Crypto crypto = CryptoPriceValues.getLoadedCryptoData("IN1").orElseThrow();
+            assertEquals(3, crypto.getSeries().size());
+            assertEquals(25_000_000L, crypto.getSeries().price(2));
+            assertEquals("timestamp,symbol,price\n1641009600000,IN1,1.5\n1641013200000,IN1,2.5\n1641016800000,IN1,0.25\n",
+                Files.readString(file));
+            assertEquals(Files.size(file), crypto.getFileState().getOffset());
+            assertFalse(crypto.isUnwritten());
+            assertEquals(3, CryptoPriceValues.loadData("IN1").getSeries().size());
+        } finally {
+            CryptoPriceValues.stopIngest();
+            CryptoPriceValues.unload("IN1");
+        }
+    }
+
+    @Test
+    void ingest_merge_shouldAddOlderTicksAndSkipExistingTimestamps() throws Exception {
+        Path file = folder.resolve("IN2_values.csv");
+        CryptoPriceValues.getCryptoData("IN2", folder.toString());
+        CryptoPriceValues.setIngest(PriceFileAppender.SYNC_NEVER, 60_000, 1 << 20, CryptoPriceValues.INGEST_MERGE);
+        try {
+            CryptoPriceValues.ingest("IN2", List.of(tick(1641013200000L, "2"), tick(1641016800000L, "3")));
+            CryptoIngestResult result = CryptoPriceValues.ingest("IN2", List.of(
+                tick(1641009600000L, "1"), tick(1641013200000L, "5"), tick(1641009600000L, "6")));
+
+            assertEquals(1, result.getAccepted());
+            assertEquals(2, result.getRejected());
+            Crypto crypto = CryptoPriceValues.getLoadedCryptoData("IN2").orElseThrow();
+            assertEquals(3, crypto.getSeries().size());
+            assertEquals(1641009600000L, crypto.getSeries().timestamp(0));
+            assertTrue(crypto.isUnwritten());
+            assertEquals(3, CryptoPriceValues.loadData("IN2").getSeries().size());
+            assertEquals(4, Files.readAllLines(file).size());
+        } finally {
+            CryptoPriceValues.stopIngest();
+            CryptoPriceValues.unload("IN2");
+        }
+    }
+
+    @Test
+    void getCryptoData_afterCompletedLoad_shouldStartNewLoad() throws Exception {
+        Path file = folder.resolve("RL_values.csv");
+        Files.write(file, "timestamp,symbol,price\n".getBytes());
+        try {
+            for (int i = 0; i < 200; i++) {
+                Files.write(file, (1641009600000L + i * 60_000L + ",RL,1." + i + "\n").getBytes(), StandardOpenOption.APPEND);
+
+                Optional<Crypto> crypto = CryptoPriceValues.getCryptoData("RL", folder.toString());
+
+                assertTrue(crypto.isPresent());
+                assertEquals(i + 1, crypto.get().getSeries().size());
+                CryptoPriceValues.unload("RL");
+            }
+        } finally {
+            CryptoPriceValues.unload("RL");
+        }
+    }
+
+    @Test
+    void getCryptoData_fileNotExist_shouldReturnEmpty() {
+        assertTrue(CryptoPriceValues.getCryptoData("MISSING", folder.toString()).isEmpty());
+    }
+
+    private static CryptoData tick(long timestamp, String price) {
+        return new CryptoData(Instant.ofEpochMilli(timestamp), null, price);
+    }
+}
@@ -0,0 +1,180 @@
+package com.crypto.info.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResultCacheTest {
+
+    @Test
+    void get_sameKey_shouldComputeOnce() {
+        ResultCache cache = new ResultCache(10);
+        AtomicInteger computed = new AtomicInteger();
+
+        VersionedResult<String> first = cache.get("limits|BTC:1", () -> "v" + computed.incrementAndGet(), deadline());
+        VersionedResult<String> second = cache.get("limits|BTC:1", () -> "v" + computed.incrementAndGet(), deadline());
+
+        assertSame(first, second);
+        assertEquals("v1", second.getValue());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void get_concurrentMisses_shouldComputeOnceAndShareResult() throws Exception {
+        ResultCache cache = new ResultCache(0);
+        AtomicInteger computed = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<VersionedResult<String>>> results = new ArrayList<>();
+            results.add(executor.submit(() -> cache.get("limits|BTC:1", () -> {
+                started.countDown();
+                await(release);
+                return "v" + computed.incrementAndGet();
+            }, deadline())));
+            started.await(10, TimeUnit.SECONDS);
+            for (int i = 0; i < 3; i++) {
+                results.add(executor.submit(() -> cache.get("limits|BTC:1", () -> "v" + computed.incrementAndGet(), deadline())));
+            }
+            while (cache.getCoalesced() < 3) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            for (Future<VersionedResult<String>> result : results) {
+                assertSame(results.get(0).get(10, TimeUnit.SECONDS), result.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, computed.get());
+            assertEquals(1, cache.getMisses());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void get_coalescedMissPastDeadline_shouldThrowAndLeaveComputationRunning() throws Exception {
+        ResultCache cache = new ResultCache(10);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<VersionedResult<String>> first = executor.submit(() -> cache.get("limits|BTC:1", () -> {
+                started.countDown();
+                await(release);
+                return "a";
+            }, deadline()));
+            started.await(10, TimeUnit.SECONDS);
+
+            assertThrows(IllegalStateException.class,
+                () -> cache.get("limits|BTC:1", () -> "b", System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(20)));
+            release.countDown();
+
+            assertEquals("a", first.get(10, TimeUnit.SECONDS).getValue());
+            assertSame(first.get(), cache.get("limits|BTC:1", () -> "b", deadline()));
+            assertEquals(1, cache.getCoalesced());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void get_failedComputation_shouldNotBeCached() {
+        ResultCache cache = new ResultCache(10);
+
+        assertThrows(IllegalStateException.class, () -> cache.get("limits|BTC:1", () -> {
+            throw new IllegalStateException("saturated");
+        }, deadline()));
+
+        assertEquals("a", cache.get("limits|BTC:1", () -> "a", deadline()).getValue());
+    }
+
+    @Test
+    void get_newVersion_shouldGiveNewTag() {
+        ResultCache cache = new ResultCache(10);
+
+        VersionedResult<String> first = cache.get("limits|BTC:1", () -> "a", deadline());
+        VersionedResult<String> second = cache.get("limits|BTC:2", () -> "a", deadline());
+
+        assertNotEquals(first.getEtag(), second.getEtag());
+        assertTrue(first.getEtag().startsWith("\"") && first.getEtag().endsWith("\""));
+    }
+
+    @Test
+    void get_sizeExceeded_shouldEvictLeastRecentlyUsed() {
+        ResultCache cache = new ResultCache(2);
+        cache.get("a", () -> 1, deadline());
+        cache.get("b", () -> 2, deadline());
+        cache.get("a", () -> 1, deadline());
+        cache.get("c", () -> 3, deadline());
+
+        cache.get("a", () -> 1, deadline());
+        cache.get("b", () -> 2, deadline());
+
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.getHits());
+        assertEquals(4, cache.getMisses());
+        assertEquals(2, cache.getEvictions());
+    }
+
+    @Test
+    void matches_shouldCompareIfNoneMatchTags() {
+        VersionedResult<String> result = new VersionedResult<>("a", "\"abc\"");
+
+        assertTrue(result.matches("\"abc\""));
+        assertTrue(result.matches("\"x\", W/\"abc\""));
+        assertTrue(result.matches("*"));
+        assertFalse(result.matches("\"abd\""));
+        assertFalse(result.matches(null));
+    }
+
+    @Test
+    void matches_gzipTag_shouldDifferAndMatch() {
+        VersionedResult<String> result = new VersionedResult<>("a", "\"abc\"");
+
+        assertEquals("\"abc-gzip\"", result.getGzipEtag());
+        assertTrue(result.matches("\"abc-gzip\""));
+        assertFalse(result.matches("\"abd-gzip\""));
+    }
+
+    @Test
+    void rendered_cachedResult_shouldRenderOnce() {
+        ResultCache cache = new ResultCache(10);
+        AtomicInteger rendered = new AtomicInteger();
+
+        String first = cache.get("limits|BTC:1", () -> "a", deadline()).rendered(value -> value + rendered.incrementAndGet());
+        String second = cache.get("limits|BTC:1", () -> "a", deadline()).rendered(value -> value + rendered.incrementAndGet());
+        String changed = cache.get("limits|BTC:2", () -> "a", deadline()).rendered(value -> value + rendered.incrementAndGet());
+
+        assertSame(first, second);
+        assertEquals("a1", second);
+        assertEquals("a2", changed);
+    }
+
+    private static long deadline() {
+        return System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.crypto.info.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TinyLfuCacheTest {
+
+    @Test
+    void put_overMaxWeight_shouldEvictAndKeepWeightUnderLimit() {
+        List<String> evicted = new ArrayList<>();
+        TinyLfuCache<String> cache = new TinyLfuCache<>("test", 1_000, value -> 100, Collections.emptySet(), 100,
+            (key, value) -> evicted.add(key));
+
+        for (int i = 0; i < 50; i++) {
+            String key = "K" + i;
+            if (cache.get(key) == null) {
+                cache.put(key, key);
+            }
+            assertTrue(cache.weight() <= 1_000);
+        }
+
+        assertEquals(10, cache.size());
+        assertEquals(40, evicted.size());
+        assertEquals(40, cache.getEvictions());
+    }
+
+    @Test
+    void get_frequentKeys_shouldSurviveScanOfRareKeys() {
+        TinyLfuCache<String> cache = new TinyLfuCache<>("test", 1_000, value -> 100, Collections.emptySet(), 1_000,
+            (key, value) -> { });
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 5; i++) {
+                load(cache, "HOT" + i);
+            }
+        }
+
+        for (int i = 0; i < 500; i++) {
+            load(cache, "COLD" + i);
+        }
+
+        for (int i = 0; i < 5; i++) {
+            assertNotNull(cache.peek("HOT" + i));
+        }
+    }
+
+    @Test
+    void put_pinnedKey_shouldNeverEvictIt() {
+        TinyLfuCache<String> cache = new TinyLfuCache<>("test", 300, value -> 100, Set.of("PIN"), 100,
+            (key, value) -> { });
+        cache.put("PIN", "PIN");
+
+        for (int i = 0; i < 100; i++) {
+            load(cache, "K" + i);
+        }
+
+        assertEquals("PIN", cache.peek("PIN"));
+        assertTrue(cache.weight() <= 300);
+    }
+
+    @Test
+    void put_outsideWeight_shouldCountAgainstLimit() {
+        AtomicLong outside = new AtomicLong();
+        TinyLfuCache<String> cache = new TinyLfuCache<>("test", 300, value -> 100, outside::get, Collections.emptySet(),
+            100, (key, value) -> { });
+        for (int i = 0; i < 3; i++) {
+            load(cache, "K" + i);
+        }
+        assertEquals(300, cache.weight());
+
+        outside.set(150);
+        load(cache, "K3");
+
+        assertEquals(100, cache.weight());
+        assertEquals("K3", cache.peek("K3"));
+    }
+
+    @Test
+    void remove_shouldForgetValueWithoutEviction() {
+        TinyLfuCache<String> cache = new TinyLfuCache<>("test", 300, value -> 100, Collections.emptySet(), 100,
+            (key, value) -> { });
+        cache.put("K", "V");
+
+        assertEquals("V", cache.remove("K"));
+        assertNull(cache.get("K"));
+        assertEquals(0, cache.weight());
+        assertEquals(0, cache.getEvictions());
+    }
+
+    private static void load(TinyLfuCache<String> cache, String key) {
+        if (cache.get(key) == null) {
+            cache.put(key, key);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.crypto.info.controller;
+
+import com.crypto.info.model.Crypto;
+import com.crypto.info.model.PriceSeries;
+import com.crypto.info.model.SeriesWindow;
+import com.crypto.info.util.PriceUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CryptoDataStreamTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Test
+    void writeTo_wholeSeries_shouldMatchSerializedCrypto() throws IOException {
+        Crypto crypto = crypto();
+
+        String streamed = write(new CryptoDataStream(objectMapper, crypto, SeriesWindow.of(crypto.getSeries()), null));
+
+        assertEquals(objectMapper.writeValueAsString(crypto), streamed);
+    }
+
+    @Test
+    void writeTo_emptySeries_shouldMatchSerializedCrypto() throws IOException {
+        Crypto crypto = new Crypto("BTC");
+
+        String streamed = write(new CryptoDataStream(objectMapper, crypto, SeriesWindow.of(crypto.getSeries()), null));
+
+        assertEquals(objectMapper.writeValueAsString(crypto), streamed);
+    }
+
+    @Test
+    void writeTo_pageAndIndexes_shouldWriteSelectedPoints() throws IOException {
+        Crypto crypto = crypto();
+
+        String page = write(new CryptoDataStream(objectMapper, crypto, new SeriesWindow(crypto.getSeries(), 1, 2), "abc"));
+        String indexes = write(new CryptoDataStream(objectMapper, crypto, new int[]{0, 2}));
+
+        assertEquals("{\"name\":\"BTC\",\"lastUploadFileDate\":\"2022-10-02T00:00:00Z\","
+            + "\"data\":[{\"date\":\"2022-01-01T10:00:00Z\",\"price\":\"47143.98\"}],\"next\":\"abc\"}", page);
+        assertEquals("{\"name\":\"BTC\",\"lastUploadFileDate\":\"2022-10-02T00:00:00Z\","
+            + "\"data\":[{\"date\":\"2022-01-01T04:00:00Z\",\"price\":\"46813.21\"},"
+            + "{\"date\":\"2022-10-01T21:00:00Z\",\"price\":\"46979.61\"}]}", indexes);
+    }
+
+    private static Crypto crypto() {
+        Crypto crypto = new Crypto("BTC");
+        crypto.setLastUploadFileDate(Instant.parse("2022-10-02T00:00:00Z"));
+        crypto.setSeries(PriceSeries.builder()
+            .add(1641009600000L, PriceUtil.parsePrice("46813.21"))
+            .add(1664658000000L, PriceUtil.parsePrice("46979.61"))
+            .add(1641031200000L, PriceUtil.parsePrice("47143.98"))
+            .build());
+        return crypto;
+    }
+
+    private static String write(CryptoDataStream stream) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        stream.writeTo(output);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+}
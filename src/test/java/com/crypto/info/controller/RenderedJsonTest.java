@@ -0,0 +1,56 @@
+package com.crypto.info.controller;
+
+import com.crypto.info.model.CryptoNormalizedRange;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RenderedJsonTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void render_largeValue_shouldKeepJsonAndItsGzip() throws IOException {
+        List<CryptoNormalizedRange> ranges = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            ranges.add(new CryptoNormalizedRange("CRYPTO" + i, i * 1_000_000L));
+        }
+
+        RenderedJson rendered = RenderedJson.render(objectMapper, ranges, 1024);
+
+        assertArrayEquals(objectMapper.writeValueAsBytes(ranges), rendered.getJson());
+        assertTrue(rendered.getGzip().length < rendered.getJson().length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(rendered.getGzip()))) {
+            assertArrayEquals(rendered.getJson(), in.readAllBytes());
+        }
+    }
+
+    @Test
+    void render_smallValueOrDisabledGzip_shouldKeepOnlyJson() {
+        CryptoNormalizedRange range = new CryptoNormalizedRange("BTC", 1_000_000L);
+
+        assertNull(RenderedJson.render(objectMapper, range, 1024).getGzip());
+        assertNull(RenderedJson.render(objectMapper, List.of(range, range, range), -1).getGzip());
+    }
+
+    @Test
+    void acceptsGzip_shouldHonorCodingsAndZeroQuality() {
+        assertTrue(RenderedJson.acceptsGzip("gzip, deflate, br"));
+        assertTrue(RenderedJson.acceptsGzip("br;q=1.0, GZIP;q=0.5"));
+        assertTrue(RenderedJson.acceptsGzip("*"));
+        assertTrue(RenderedJson.acceptsGzip("*;q=0, gzip"));
+        assertFalse(RenderedJson.acceptsGzip("gzip;q=0, *"));
+        assertFalse(RenderedJson.acceptsGzip("deflate, br"));
+        assertFalse(RenderedJson.acceptsGzip(null));
+    }
+}
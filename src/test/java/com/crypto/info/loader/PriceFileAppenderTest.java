@@ -0,0 +1,66 @@
+package com.crypto.info.loader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PriceFileAppenderTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void flush_queuedAppends_shouldWriteThemWithOneWrite() throws Exception {
+        Path file = folder.resolve("BTC_values.csv");
+        Files.write(file, "timestamp,symbol,price\n1641009600000,BTC,1.5".getBytes());
+        List<long[]> writes = new ArrayList<>();
+        Object lock = new Object();
+        try (PriceFileAppender appender = new PriceFileAppender(name -> file, name -> lock,
+            (name, written, from, size) -> writes.add(new long[]{from, size}), PriceFileAppender.SYNC_BATCH, 60_000, 1 << 20)) {
+            CompletableFuture<Void> first = appender.append("BTC", "1641013200000,BTC,2.5\n".getBytes());
+            CompletableFuture<Void> second = appender.append("BTC", "1641016800000,BTC,3.5\n".getBytes());
+            assertTrue(appender.isQueued("BTC"));
+
+            appender.flush();
+
+            assertFalse(appender.isQueued("BTC"));
+            first.get(1, TimeUnit.SECONDS);
+            second.get(1, TimeUnit.SECONDS);
+        }
+        assertEquals("timestamp,symbol,price\n1641009600000,BTC,1.5\n1641013200000,BTC,2.5\n1641016800000,BTC,3.5\n",
+            Files.readString(file));
+        assertEquals(1, writes.size());
+        assertEquals(44, writes.get(0)[0]);
+        assertEquals(Files.size(file), writes.get(0)[1]);
+    }
+
+    @Test
+    void append_batchSizeReached_shouldWriteBeforeInterval() throws Exception {
+        Path file = folder.resolve("ETH_values.csv");
+        Files.write(file, "timestamp,symbol,price\n".getBytes());
+        try (PriceFileAppender appender = new PriceFileAppender(name -> file, name -> file,
+            (name, written, from, size) -> {
+            }, PriceFileAppender.SYNC_NEVER, 60_000, 16)) {
+            appender.append("ETH", "1641013200000,ETH,2.5\n".getBytes()).get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(2, Files.readAllLines(file).size());
+    }
+
+    @Test
+    void constructor_unknownSync_shouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new PriceFileAppender(name -> folder, name -> folder,
+            (name, written, from, size) -> {
+            }, "sometimes", 100, 1024));
+    }
+}
@@ -0,0 +1,134 @@
+package com.crypto.info.loader;
+
+import com.crypto.info.model.PriceFileState;
+import com.crypto.info.model.PriceSeries;
+import com.crypto.info.util.PriceUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PriceFileReaderTest {
+
+    private static final String HEADER = "timestamp,symbol,price\n";
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void read_validFile_shouldParseAllRows() throws IOException {
+        Path file = write(HEADER
+            + "1641009600000,BTC,46813.21\n"
+            + "1641020400000,BTC,42110\r\n"
+            + "1641031200000,BTC,0.1702");
+        PriceSeries.Builder builder = PriceSeries.builder();
+
+        PriceFileReader.ReadResult result = new PriceFileReader().read(file, builder);
+        PriceSeries series = builder.build();
+
+        assertEquals(3, result.getRows());
+        assertEquals(0, result.getMalformed());
+        assertEquals(Files.size(file), result.getOffset());
+        assertEquals(1641020400000L, series.timestamp(1));
+        assertEquals(PriceUtil.parsePrice("46813.21"), series.price(0));
+        assertEquals(PriceUtil.parsePrice("42110"), series.price(1));
+        assertEquals(PriceUtil.parsePrice("0.1702"), series.price(2));
+    }
+
+    @Test
+    void read_malformedLines_shouldSkipThem() throws IOException {
+        Path file = write(HEADER
+            + "1641009600000,BTC,46813.21\n"
+            + "16410x9600000,BTC,46813.21\n"
+            + "1641020400000,BTC\n"
+            + "\n"
+            + "1641031200000,BTC,47143.98\n");
+        PriceSeries.Builder builder = PriceSeries.builder();
+
+        PriceFileReader.ReadResult result = new PriceFileReader().read(file, builder);
+
+        assertEquals(2, result.getRows());
+        assertEquals(2, result.getMalformed());
+        assertEquals(2, builder.build().size());
+    }
+
+    @Test
+    void read_smallRegions_shouldParseLinesAcrossRegionBoundaries() throws IOException {
+        StringBuilder content = new StringBuilder(HEADER);
+        for (int i = 0; i < 100; i++) {
+            content.append(1641009600000L + i * 3600_000L).append(",DOGE,0.17").append(i).append('\n');
+        }
+        Path file = write(content.toString());
+        PriceSeries.Builder builder = PriceSeries.builder();
+
+        PriceFileReader.ReadResult result = new PriceFileReader(64).read(file, builder);
+        PriceSeries series = builder.build();
+
+        assertEquals(100, result.getRows());
+        assertEquals(PriceUtil.parsePrice("0.1799"), series.price(99));
+        assertEquals(1641009600000L + 99 * 3600_000L, series.timestamp(99));
+    }
+
+    @Test
+    void read_fromOffset_shouldParseOnlyTail() throws IOException {
+        String head = HEADER + "1641009600000,BTC,46813.21\n";
+        Path file = write(head + "1641020400000,BTC,46979.61\n");
+        PriceSeries.Builder builder = PriceSeries.builder();
+
+        PriceFileReader.ReadResult result = new PriceFileReader().read(file, head.length(), false, builder);
+
+        assertEquals(1, result.getRows());
+        assertEquals(1641020400000L, builder.build().timestamp(0));
+    }
+
+    @Test
+    void read_fromOffset_partialLastLine_shouldLeaveItForNextRead() throws IOException {
+        String head = HEADER + "1641009600000,BTC,46813.21\n";
+        Path file = write(head + "1641031200000,BTC,471");
+        PriceFileReader reader = new PriceFileReader();
+        PriceSeries.Builder builder = PriceSeries.builder();
+
+        PriceFileReader.ReadResult partial = reader.read(file, head.length(), false, builder);
+        Files.write(file, "43.98\n".getBytes(StandardCharsets.US_ASCII), StandardOpenOption.APPEND);
+        PriceFileReader.ReadResult completed = reader.read(file, partial.getOffset(), false, builder);
+        PriceSeries series = builder.build();
+
+        assertEquals(0, partial.getRows());
+        assertEquals(head.length(), partial.getOffset());
+        assertEquals(1, completed.getRows());
+        assertEquals(0, completed.getMalformed());
+        assertEquals(Files.size(file), completed.getOffset());
+        assertEquals(1, series.size());
+        assertEquals(1641031200000L, series.timestamp(0));
+        assertEquals(PriceUtil.parsePrice("47143.98"), series.price(0));
+    }
+
+    @Test
+    void isAppendedTo_shouldDetectAppendedAndRewrittenFiles() throws IOException {
+        String head = HEADER + "1641009600000,BTC,46813.21\n";
+        Path file = write(head);
+        PriceFileReader reader = new PriceFileReader();
+        PriceFileState state = reader.fileState(file, head.length(), 1641009600000L);
+
+        Files.write(file, "1641020400000,BTC,46979.61\n".getBytes(StandardCharsets.US_ASCII), StandardOpenOption.APPEND);
+        assertTrue(reader.isAppendedTo(file, state));
+
+        write(HEADER + "1641009600000,BTC,46813.22\n1641020400000,BTC,46979.61\n");
+        assertFalse(reader.isAppendedTo(file, state));
+
+        write(HEADER);
+        assertFalse(reader.isAppendedTo(file, state));
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.write(folder.resolve("BTC_values.csv"), content.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,56 @@
+package com.crypto.info.loader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PriceFilesWatcherTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void start_watchMode_shouldNotifyAboutChangedFile() throws IOException, InterruptedException {
+        Set<String> changed = ConcurrentHashMap.newKeySet();
+        CountDownLatch latch = new CountDownLatch(1);
+        try (PriceFilesWatcher watcher = new PriceFilesWatcher(folder, "_values.csv", Arrays.asList("BTC", "DOGE"),
+            cryptoName -> {
+                changed.add(cryptoName);
+                latch.countDown();
+            }, 60_000)) {
+            watcher.start(PriceFilesWatcher.MODE_WATCH);
+            Files.write(folder.resolve("ETH_values.csv"), "timestamp,symbol,price\n".getBytes());
+            Files.write(folder.resolve("BTC_values.csv"), "timestamp,symbol,price\n".getBytes());
+
+            assertTrue(latch.await(30, TimeUnit.SECONDS));
+            assertEquals(Set.of("BTC"), changed);
+        }
+    }
+
+    @Test
+    void start_pollMode_shouldNotifyAboutAllCryptos() throws InterruptedException {
+        Set<String> changed = ConcurrentHashMap.newKeySet();
+        CountDownLatch latch = new CountDownLatch(2);
+        try (PriceFilesWatcher watcher = new PriceFilesWatcher(folder, "_values.csv", Arrays.asList("BTC", "DOGE"),
+            cryptoName -> {
+                changed.add(cryptoName);
+                latch.countDown();
+            }, 10)) {
+            watcher.start(PriceFilesWatcher.MODE_POLL);
+
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            assertTrue(changed.containsAll(Arrays.asList("BTC", "DOGE")));
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.crypto.info.loader;
+
+import com.crypto.info.model.PriceFileState;
+import com.crypto.info.model.PriceSeries;
+import com.crypto.info.model.PriceStorage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PriceSnapshotTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void read_writtenSnapshot_shouldReturnSameSeriesAndState() throws IOException {
+        PriceSeries.Builder builder = PriceSeries.builder();
+        for (int i = 0; i < 200_000; i++) {
+            builder.add(1641009600000L + i * 60_000L, 100_000_000L + i * 7L);
+        }
+        PriceSeries series = builder.build();
+        PriceFileState state = new PriceFileState(123_456, series.lastTimestamp(), 11, 22);
+        PriceSnapshot snapshot = new PriceSnapshot(folder.resolve("snapshots"));
+
+        snapshot.write("BTC", series, state, 1641009600123L);
+        Optional<PriceSnapshot.Content> content = snapshot.read("BTC", PriceStorage.heap());
+
+        assertTrue(content.isPresent());
+        assertEquals(state, content.get().getFileState());
+        assertEquals(1641009600123L, content.get().getSourceModified());
+        PriceSeries read = content.get().getSeries();
+        assertEquals(series.size(), read.size());
+        for (int i = 0; i < series.size(); i++) {
+            assertEquals(series.timestamp(i), read.timestamp(i));
+            assertEquals(series.price(i), read.price(i));
+        }
+    }
+
+    @Test
+    void read_mappedStorage_shouldUseSnapshotMappingAndCopyOnAppend() throws IOException {
+        PriceSeries series = PriceSeries.builder().add(1641009600000L, 1).add(1641009660000L, 2).build();
+        PriceSnapshot snapshot = new PriceSnapshot(folder);
+        snapshot.write("BTC", series, new PriceFileState(50, 1641009660000L, 1, 2), 0);
+        PriceStorage storage = PriceStorage.mapped(folder.resolve("columns"));
+
+        PriceSeries read = snapshot.read("BTC", storage).orElseThrow().getSeries();
+        assertTrue(Files.notExists(folder.resolve("columns")));
+        PriceSeries appended = read.append(PriceSeries.builder().add(1641009720000L, 3).build());
+
+        assertEquals(2, read.getColumns().capacity());
+        assertSame(storage, read.getColumns().getStorage());
+        assertEquals(2, read.price(1));
+        assertEquals(3, appended.size());
+        assertEquals(2, appended.price(1));
+        assertEquals(3, appended.price(2));
+    }
+
+    @Test
+    void read_corruptedSnapshot_shouldReturnEmpty() throws IOException {
+        PriceSeries series = PriceSeries.builder().add(1641009600000L, 1).add(1641009660000L, 2).build();
+        PriceSnapshot snapshot = new PriceSnapshot(folder);
+        snapshot.write("BTC", series, new PriceFileState(50, 1641009660000L, 1, 2), 0);
+        byte[] bytes = Files.readAllBytes(snapshot.file("BTC"));
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(snapshot.file("BTC"), bytes);
+
+        assertTrue(snapshot.read("BTC", PriceStorage.heap()).isEmpty());
+        Files.write(snapshot.file("BTC"), new byte[10]);
+        assertTrue(snapshot.read("BTC", PriceStorage.heap()).isEmpty());
+    }
+
+    @Test
+    void read_noSnapshot_shouldReturnEmpty() throws IOException {
+        assertTrue(new PriceSnapshot(folder).read("BTC", PriceStorage.heap()).isEmpty());
+    }
+}
@@ -0,0 +1,85 @@
+package com.crypto.info.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressedColumnsTest {
+
+    @Test
+    void append_compressedStorage_shouldBehaveAsHeapSeries() {
+        Random random = new Random(5);
+        PriceSeries heap = PriceSeries.empty();
+        PriceSeries compressed = PriceSeries.empty();
+        long timestamp = 1_641_000_000_000L;
+        long price = 4_000_000_000_000L;
+        for (int step = 0; step < 30; step++) {
+            PriceSeries.Builder tail = PriceSeries.builder();
+            int count = 1 + random.nextInt(300);
+            for (int i = 0; i < count; i++) {
+                timestamp += random.nextInt(10) == 0 ? random.nextInt(100_000_000) : 60_000;
+                price = random.nextInt(5) == 0 ? price : Math.max(0, price + random.nextInt(2_000_000_000) - 1_000_000_000);
+                tail.add(timestamp, random.nextInt(50) == 0 ? Long.MAX_VALUE - random.nextInt(10) : price);
+            }
+            PriceSeries heapTail = tail.build();
+            heap = heap.append(heapTail);
+            compressed = compressed.isEmpty() ? tail.build(PriceStorage.compressed()) : compressed.append(heapTail);
+        }
+
+        assertSame(PriceStorage.compressed(), compressed.getColumns().getStorage());
+        assertEquals(heap.size(), compressed.size());
+        for (int i = 0; i < heap.size(); i++) {
+            assertEquals(heap.timestamp(i), compressed.timestamp(i));
+            assertEquals(heap.price(i), compressed.price(i));
+        }
+        for (int i = heap.size() - 1; i >= 0; i -= 7) {
+            assertEquals(heap.price(i), compressed.price(i));
+        }
+        for (int i = 0; i < 500; i++) {
+            int from = random.nextInt(heap.size());
+            int to = from + random.nextInt(heap.size() - from + 1);
+            assertEquals(heap.indexOfMin(from, to), compressed.indexOfMin(from, to));
+            assertEquals(heap.indexOfMax(from, to), compressed.indexOfMax(from, to));
+            long search = heap.timestamp(random.nextInt(heap.size())) + random.nextInt(3) - 1;
+            assertEquals(heap.lowerBound(search), compressed.lowerBound(search));
+            assertEquals(heap.upperBound(search), compressed.upperBound(search));
+        }
+        assertEquals(0, compressed.lowerBound(Long.MIN_VALUE));
+        assertEquals(heap.size(), compressed.upperBound(Long.MAX_VALUE));
+
+        PriceSeries merged = compressed.append(PriceSeries.builder().add(-1, 5).build());
+        assertSame(PriceStorage.compressed(), merged.getColumns().getStorage());
+        assertEquals(-1, merged.timestamp(0));
+        assertEquals(heap.price(heap.size() - 1), merged.price(merged.size() - 1));
+    }
+
+    @Test
+    void estimatedBytes_minuteSeries_shouldBeSeveralTimesSmallerThanHeap() {
+        Random random = new Random(11);
+        PriceSeries.Builder builder = PriceSeries.builder();
+        long price = 4_000_000_000_000L;
+        for (int i = 0; i < 100_000; i++) {
+            price += (random.nextInt(201) - 100) * 1_000_000L;
+            builder.add(1_641_000_000_000L + i * 60_000L, price);
+        }
+        PriceColumns heap = builder.build().getColumns();
+        PriceColumns compressed = builder.build(PriceStorage.compressed()).getColumns();
+
+        assertTrue(compressed.estimatedBytes() * 3 < heap.estimatedBytes(),
+            compressed.estimatedBytes() + " of " + heap.estimatedBytes());
+    }
+
+    @Test
+    void set_notAppendedPoint_shouldThrow() {
+        PriceColumns columns = PriceStorage.compressed().allocate(10);
+        columns.set(0, 1, 1);
+
+        assertThrows(IllegalStateException.class, () -> columns.set(0, 2, 2));
+        assertThrows(IllegalStateException.class, () -> columns.set(2, 2, 2));
+    }
+}
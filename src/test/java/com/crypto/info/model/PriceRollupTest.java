@@ -0,0 +1,96 @@
+package com.crypto.info.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PriceRollupTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Europe/Kiev");
+    private static final long START = Instant.parse("2022-03-20T00:00:00Z").toEpochMilli();
+    private static final long STEP = 7 * 60 * 1000L;
+
+    @Test
+    void build_allResolutions_shouldMatchFullScan() {
+        PriceSeries series = randomSeries(new Random(3), 0, 6_000);
+
+        for (RollupResolution resolution : RollupResolution.values()) {
+            assertMatchesScan(series, PriceRollup.build(series, resolution, ZONE));
+        }
+    }
+
+    @Test
+    void append_appendedSeries_shouldMatchBuiltRollup() {
+        Random random = new Random(5);
+        PriceSeries series = PriceSeries.empty();
+        PriceRollup rollup = PriceRollup.build(series, RollupResolution.DAY, ZONE);
+        for (int step = 0; step < 20; step++) {
+            series = series.append(randomSeries(random, series.size(), 1 + random.nextInt(400)));
+            rollup = rollup.append(series);
+        }
+
+        assertMatchesScan(series, rollup);
+        assertEquals(PriceRollup.build(series, RollupResolution.DAY, ZONE).size(), rollup.size());
+    }
+
+    @Test
+    void indexOf_instant_shouldFindBucketInZone() {
+        PriceSeries series = randomSeries(new Random(9), 0, 1_000);
+        PriceRollup rollup = PriceRollup.build(series, RollupResolution.DAY, ZONE);
+
+        int bucket = rollup.indexOf(Instant.ofEpochMilli(series.timestamp(500)));
+
+        assertEquals(Instant.ofEpochMilli(series.timestamp(500)).atZone(ZONE).toLocalDate().toEpochDay(), rollup.key(bucket));
+        assertEquals(-1, rollup.indexOf(Instant.ofEpochMilli(START).minusSeconds(7 * 24 * 3600)));
+    }
+
+    private static PriceSeries randomSeries(Random random, int first, int count) {
+        PriceSeries.Builder builder = PriceSeries.builder();
+        for (int i = first; i < first + count; i++) {
+            builder.add(START + i * STEP, random.nextInt(1_000));
+        }
+        return builder.build();
+    }
+
+    private static void assertMatchesScan(PriceSeries series, PriceRollup rollup) {
+        RollupResolution resolution = rollup.getResolution();
+        int bucket = -1;
+        long key = Long.MIN_VALUE;
+        long high = 0;
+        long low = 0;
+        int count = 0;
+        for (int i = 0; i < series.size(); i++) {
+            long pointKey = resolution.key(resolution.bucketStart(Instant.ofEpochMilli(series.timestamp(i)), rollup.getZone()));
+            if (pointKey != key) {
+                if (bucket >= 0) {
+                    assertBucket(rollup, bucket, key, high, low, count, series.price(i - 1));
+                }
+                bucket++;
+                key = pointKey;
+                assertEquals(series.price(i), rollup.open(bucket));
+                high = series.price(i);
+                low = series.price(i);
+                count = 0;
+            }
+            high = Math.max(high, series.price(i));
+            low = Math.min(low, series.price(i));
+            count++;
+        }
+        assertBucket(rollup, bucket, key, high, low, count, series.price(series.size() - 1));
+        assertEquals(bucket + 1, rollup.size());
+    }
+
+    private static void assertBucket(PriceRollup rollup, int bucket, long key, long high, long low, int count, long close) {
+        String message = rollup.getResolution() + " bucket " + bucket;
+        assertEquals(key, rollup.key(bucket), message);
+        assertEquals(high, rollup.high(bucket), message);
+        assertEquals(low, rollup.low(bucket), message);
+        assertEquals(count, rollup.count(bucket), message);
+        assertEquals(close, rollup.close(bucket), message);
+        assertEquals(bucket, rollup.indexOf(key), message);
+    }
+}
@@ -0,0 +1,96 @@
+package com.crypto.info.model;
+
+import com.crypto.info.util.PriceUtil;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PriceSeriesTest {
+
+    @Test
+    void build_unsortedPoints_shouldSortByTimestamp() {
+        PriceSeries series = PriceSeries.builder()
+            .add(1641009600000L, PriceUtil.parsePrice("46813.21"))
+            .add(1664658000000L, PriceUtil.parsePrice("46979.61"))
+            .add(1641031200000L, PriceUtil.parsePrice("47143.98"))
+            .build();
+
+        assertEquals(3, series.size());
+        assertEquals(1641009600000L, series.timestamp(0));
+        assertEquals(1641031200000L, series.timestamp(1));
+        assertEquals(1664658000000L, series.timestamp(2));
+        assertEquals(PriceUtil.parsePrice("46979.61"), series.price(2));
+    }
+
+    @Test
+    void indexOfMinMax_equalPrices_shouldReturnFirstPoint() {
+        PriceSeries series = PriceSeries.builder()
+            .add(1L, PriceUtil.parsePrice("0.1719"))
+            .add(2L, PriceUtil.parsePrice("0.1702"))
+            .add(3L, PriceUtil.parsePrice("0.1727"))
+            .add(4L, PriceUtil.parsePrice("0.1702"))
+            .add(5L, PriceUtil.parsePrice("0.1727"))
+            .build();
+
+        assertEquals(1, series.indexOfMin());
+        assertEquals(2, series.indexOfMax());
+    }
+
+    @Test
+    void toCryptoData_shouldKeepOriginalPriceText() {
+        PriceSeries series = PriceSeries.builder()
+            .add(1641880800000L, PriceUtil.parsePrice("42110"))
+            .add(1641884400000L, PriceUtil.parsePrice("0.1702"))
+            .build();
+
+        assertEquals(new CryptoData(Instant.ofEpochMilli(1641880800000L), "BTC", "42110"), series.toCryptoData(0, "BTC"));
+        assertEquals("0.1702", series.toCryptoData(1, null).getPrice());
+    }
+
+    @Test
+    void append_newerPoints_shouldKeepPreviousSeriesUnchanged() {
+        PriceSeries series = PriceSeries.builder().add(1L, 10L).add(2L, 20L).build();
+        PriceSeries first = series.append(PriceSeries.builder().add(3L, 30L).build());
+        PriceSeries second = first.append(PriceSeries.builder().add(4L, 40L).build());
+        PriceSeries branch = first.append(PriceSeries.builder().add(5L, 50L).build());
+
+        assertEquals(2, series.size());
+        assertEquals(3, first.size());
+        assertEquals(4L, second.lastTimestamp());
+        assertEquals(40L, second.price(3));
+        assertEquals(5L, branch.lastTimestamp());
+        assertEquals(50L, branch.price(3));
+        assertEquals(40L, second.price(3));
+    }
+
+    @Test
+    void append_olderPoints_shouldMergeByTimestamp() {
+        PriceSeries series = PriceSeries.builder().add(1L, 10L).add(3L, 30L).build();
+
+        PriceSeries merged = series.append(PriceSeries.builder().add(2L, 20L).add(4L, 40L).build());
+
+        assertEquals(4, merged.size());
+        assertEquals(2L, merged.timestamp(1));
+        assertEquals(30L, merged.price(2));
+    }
+
+    @Test
+    void lowerUpperBound_shouldFindWindowEdges() {
+        PriceSeries series = PriceSeries.builder().add(10L, 1L).add(20L, 2L).add(20L, 3L).add(30L, 4L).build();
+
+        assertEquals(0, series.lowerBound(5L));
+        assertEquals(1, series.lowerBound(20L));
+        assertEquals(3, series.upperBound(20L));
+        assertEquals(4, series.upperBound(30L));
+        assertEquals(2, new SeriesWindow(series, series.lowerBound(20L), series.upperBound(20L)).indexOfMax());
+    }
+
+    @Test
+    void empty_shouldHaveNoPoints() {
+        assertTrue(PriceSeries.empty().isEmpty());
+        assertEquals(-1, PriceSeries.empty().indexOfMin());
+    }
+}
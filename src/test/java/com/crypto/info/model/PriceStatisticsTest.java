@@ -0,0 +1,102 @@
+package com.crypto.info.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PriceStatisticsTest {
+
+    private static final long START = Instant.parse("2022-01-01T00:00:00Z").toEpochMilli();
+    private static final long STEP = 60 * 1000L;
+
+    @Test
+    void build_randomRanges_shouldMatchFullScan() {
+        Random random = new Random(7);
+        PriceSeries series = randomSeries(random, 0, 5_000);
+        PriceStatistics statistics = PriceStatistics.build(series);
+
+        for (int i = 0; i < 200; i++) {
+            int from = random.nextInt(series.size());
+            int to = from + 1 + random.nextInt(series.size() - from);
+            assertMatchesScan(series, statistics, from, to);
+        }
+    }
+
+    @Test
+    void append_appendedSeries_shouldMatchBuiltStatistics() {
+        Random random = new Random(11);
+        PriceSeries series = PriceSeries.empty();
+        PriceStatistics statistics = PriceStatistics.build(series);
+        PriceStatistics first = null;
+        for (int step = 0; step < 20; step++) {
+            series = series.append(randomSeries(random, series.size(), 1 + random.nextInt(400)));
+            statistics = statistics.append(series);
+            if (step == 0) {
+                first = statistics;
+            }
+        }
+        PriceStatistics built = PriceStatistics.build(series);
+
+        assertEquals(series.size(), statistics.size());
+        assertEquals(built.mean(0, series.size()), statistics.mean(0, series.size()), 1e-6);
+        assertEquals(built.volatility(0, series.size()), statistics.volatility(0, series.size()), 1e-12);
+        assertMatchesScan(series, first, 0, first.size());
+    }
+
+    @Test
+    void exponentialAverage_longRange_shouldMatchFullRecursion() {
+        PriceSeries series = randomSeries(new Random(13), 0, 10_000);
+        double alpha = 2.0 / 21;
+        double average = series.price(0);
+        for (int i = 1; i < series.size(); i++) {
+            average += alpha * (series.price(i) - average);
+        }
+
+        assertEquals(average / 1e8, PriceStatistics.exponentialAverage(series, 0, series.size(), 20), 1e-6);
+        assertEquals(series.price(5) / 1e8, PriceStatistics.exponentialAverage(series, 5, 6, 20), 1e-12);
+        assertTrue(Double.isNaN(PriceStatistics.exponentialAverage(series, 5, 5, 20)));
+        assertThrows(IllegalArgumentException.class, () -> PriceStatistics.exponentialAverage(series, 0, 1, 0));
+    }
+
+    private static PriceSeries randomSeries(Random random, int first, int count) {
+        PriceSeries.Builder builder = PriceSeries.builder();
+        for (int i = first; i < first + count; i++) {
+            builder.add(START + i * STEP, 4_000_000_000_000L + random.nextInt(100_000_000) * 1_000L);
+        }
+        return builder.build();
+    }
+
+    private static void assertMatchesScan(PriceSeries series, PriceStatistics statistics, int from, int to) {
+        int count = to - from;
+        double mean = 0;
+        for (int i = from; i < to; i++) {
+            mean += series.price(i) / 1e8 / count;
+        }
+        double squares = 0;
+        double returns = 0;
+        for (int i = from; i < to; i++) {
+            squares += Math.pow(series.price(i) / 1e8 - mean, 2);
+            if (i > from) {
+                returns += Math.log((double) series.price(i) / series.price(i - 1));
+            }
+        }
+        double returnMean = returns / (count - 1);
+        double returnSquares = 0;
+        for (int i = from + 1; i < to; i++) {
+            returnSquares += Math.pow(Math.log((double) series.price(i) / series.price(i - 1)) - returnMean, 2);
+        }
+
+        assertEquals(mean, statistics.mean(from, to), 1e-6);
+        if (count > 1) {
+            assertEquals(Math.sqrt(squares / (count - 1)), statistics.standardDeviation(from, to), 1e-6);
+        }
+        if (count > 2) {
+            assertEquals(Math.sqrt(returnSquares / (count - 2)), statistics.volatility(from, to), 1e-9);
+        }
+    }
+}
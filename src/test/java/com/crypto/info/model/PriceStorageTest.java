@@ -0,0 +1,91 @@
+package com.crypto.info.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PriceStorageTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void build_offHeapStorage_shouldBehaveAsHeapSeries() {
+        for (PriceStorage storage : List.of(PriceStorage.direct(), PriceStorage.mapped(folder))) {
+            Random random = new Random(3);
+            PriceSeries heap = PriceSeries.empty();
+            PriceSeries offHeap = PriceSeries.empty();
+            for (int step = 0; step < 20; step++) {
+                PriceSeries.Builder tail = PriceSeries.builder();
+                int count = 1 + random.nextInt(500);
+                for (int i = 0; i < count; i++) {
+                    tail.add(heap.size() + i, random.nextInt(1_000));
+                }
+                PriceSeries heapTail = tail.build();
+                heap = heap.append(heapTail);
+                offHeap = offHeap.isEmpty() ? tail.build(storage) : offHeap.append(heapTail);
+            }
+
+            assertSame(storage, offHeap.getColumns().getStorage());
+            assertEquals(heap.size(), offHeap.size());
+            for (int i = 0; i < heap.size(); i++) {
+                assertEquals(heap.timestamp(i), offHeap.timestamp(i));
+                assertEquals(heap.price(i), offHeap.price(i));
+            }
+            for (int i = 0; i < 200; i++) {
+                int from = random.nextInt(heap.size());
+                int to = from + random.nextInt(heap.size() - from + 1);
+                assertEquals(heap.indexOfMin(from, to), offHeap.indexOfMin(from, to));
+                assertEquals(heap.indexOfMax(from, to), offHeap.indexOfMax(from, to));
+            }
+            PriceSeries merged = offHeap.append(PriceSeries.builder().add(-1, 5).build());
+            assertSame(storage, merged.getColumns().getStorage());
+            assertEquals(-1, merged.timestamp(0));
+        }
+    }
+
+    @Test
+    void release_mappedColumns_shouldDeleteFileAndKeepThemReadable() throws IOException {
+        PriceColumns columns = PriceStorage.mapped(folder).allocate(1_000);
+        columns.set(999, 42, 7);
+        assertTrue(PriceStorage.offHeapBytes() >= 16_000);
+
+        columns.release();
+
+        try (Stream<Path> files = Files.list(folder)) {
+            assertEquals(0, files.count());
+        }
+        assertEquals(42, columns.timestamp(999));
+        assertEquals(7, columns.price(999));
+    }
+
+    @Test
+    void release_directColumns_shouldCountBytesUntilCollected() {
+        PriceColumns columns = PriceStorage.direct().allocate(1_000);
+        columns.set(999, 42, 7);
+        long released = PriceStorage.releasedDirectBytes();
+
+        columns.release();
+        columns.release();
+
+        assertEquals(released + 16_000, PriceStorage.releasedDirectBytes());
+        assertEquals(42, columns.timestamp(999));
+    }
+
+    @Test
+    void of_unknownMode_shouldThrowIllegalArgumentException() {
+        assertSame(PriceStorage.heap(), PriceStorage.of(PriceStorage.HEAP, null));
+        assertThrows(IllegalArgumentException.class, () -> PriceStorage.of("disk", folder));
+    }
+}
@@ -0,0 +1,62 @@
+package com.crypto.info.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RangeIndexTest {
+
+    @Test
+    void indexOfMinMax_randomRanges_shouldMatchFullScan() {
+        Random random = new Random(7);
+        PriceSeries.Builder builder = PriceSeries.builder();
+        for (int i = 0; i < 5_000; i++) {
+            builder.add(i, random.nextInt(500));
+        }
+        PriceSeries series = builder.build();
+
+        assertMatchesScan(series, random);
+    }
+
+    @Test
+    void indexOfMinMax_appendedSeries_shouldMatchFullScan() {
+        Random random = new Random(11);
+        PriceSeries series = PriceSeries.empty();
+        PriceSeries first = null;
+        for (int step = 0; step < 40; step++) {
+            PriceSeries.Builder tail = PriceSeries.builder();
+            int count = 1 + random.nextInt(300);
+            for (int i = 0; i < count; i++) {
+                tail.add(series.size() + i, random.nextInt(200));
+            }
+            series = series.append(tail.build());
+            if (step == 5) {
+                first = series;
+            }
+        }
+
+        assertMatchesScan(series, random);
+        assertMatchesScan(first, random);
+    }
+
+    private static void assertMatchesScan(PriceSeries series, Random random) {
+        for (int i = 0; i < 2_000; i++) {
+            int from = random.nextInt(series.size() + 1);
+            int to = from + random.nextInt(series.size() - from + 1);
+            assertEquals(scan(series, from, to, true), series.indexOfMin(from, to), "min [" + from + ", " + to + ")");
+            assertEquals(scan(series, from, to, false), series.indexOfMax(from, to), "max [" + from + ", " + to + ")");
+        }
+    }
+
+    private static int scan(PriceSeries series, int from, int to, boolean min) {
+        int result = -1;
+        for (int i = from; i < to; i++) {
+            if (result < 0 || (min ? series.price(i) < series.price(result) : series.price(i) > series.price(result))) {
+                result = i;
+            }
+        }
+        return result;
+    }
+}
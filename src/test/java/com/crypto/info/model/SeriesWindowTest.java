@@ -0,0 +1,71 @@
+package com.crypto.info.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SeriesWindowTest {
+
+    @Test
+    void between_shouldSelectPointsInTimeRange() {
+        PriceSeries series = PriceSeries.builder().add(10, 1).add(20, 2).add(20, 3).add(30, 4).build();
+
+        SeriesWindow window = SeriesWindow.between(series, Instant.ofEpochMilli(20), Instant.ofEpochMilli(30));
+
+        assertEquals(1, window.getFrom());
+        assertEquals(3, window.getTo());
+        assertEquals(4, SeriesWindow.between(series, null, null).size());
+        assertTrue(SeriesWindow.between(series, Instant.ofEpochMilli(30), Instant.ofEpochMilli(10)).isEmpty());
+    }
+
+    @Test
+    void startingAt_equalTimestamps_shouldSkipReturnedPoints() {
+        PriceSeries series = PriceSeries.builder().add(10, 1).add(20, 2).add(20, 3).add(30, 4).build();
+        SeriesWindow window = SeriesWindow.of(series);
+
+        SeriesWindow page = window.limit(2);
+        SeriesWindow rest = window.startingAt(20, 1);
+
+        assertEquals(2, page.getTo());
+        assertEquals(2, rest.getFrom());
+        assertEquals(4, rest.getTo());
+        assertEquals(4, window.startingAt(40, 0).getFrom());
+        assertThrows(IllegalArgumentException.class, () -> window.limit(-1));
+    }
+
+    @Test
+    void indexesOfMinMax_shouldKeepExtremesOfEachBucket() {
+        Random random = new Random(13);
+        PriceSeries.Builder builder = PriceSeries.builder();
+        for (int i = 0; i < 10_000; i++) {
+            builder.add(i, random.nextInt(1_000));
+        }
+        SeriesWindow window = new SeriesWindow(builder.build(), 100, 9_900);
+
+        int[] indexes = window.indexesOfMinMax(200);
+
+        assertTrue(indexes.length <= 200);
+        for (int i = 1; i < indexes.length; i++) {
+            assertTrue(indexes[i - 1] < indexes[i]);
+        }
+        assertTrue(contains(indexes, window.indexOfMin()));
+        assertTrue(contains(indexes, window.indexOfMax()));
+        assertArrayEquals(new int[]{100, 101, 102}, new SeriesWindow(window.getSeries(), 100, 103).indexesOfMinMax(10));
+        assertThrows(IllegalArgumentException.class, () -> window.indexesOfMinMax(1));
+    }
+
+    private static boolean contains(int[] indexes, int index) {
+        for (int i : indexes) {
+            if (i == index) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,88 @@
+package com.crypto.info.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdmissionControlTest {
+
+    @Test
+    void call_saturated_shouldQueueThenRejectAtOnce() throws Exception {
+        AdmissionControl admission = new AdmissionControl(1, 1, 10_000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> running = executor.submit(() -> admission.call(() -> {
+                started.countDown();
+                await(release);
+                return 1;
+            }));
+            started.await(10, TimeUnit.SECONDS);
+            Future<Integer> queued = executor.submit(() -> admission.call(() -> 2));
+            while (admission.getQueued() < 1) {
+                Thread.sleep(1);
+            }
+
+            long start = System.nanoTime();
+            assertThrows(IllegalStateException.class, () -> admission.call(() -> 3));
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+            assertEquals(1, admission.getActive());
+            release.countDown();
+
+            assertEquals(Integer.valueOf(1), running.get(10, TimeUnit.SECONDS));
+            assertEquals(Integer.valueOf(2), queued.get(10, TimeUnit.SECONDS));
+            assertEquals(1, admission.getRejected());
+            assertEquals(0, admission.getActive());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void call_queueTimeout_shouldReject() throws Exception {
+        AdmissionControl admission = new AdmissionControl(1, 10, 50);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> admission.call(() -> {
+                started.countDown();
+                await(release);
+                return 1;
+            }));
+            started.await(10, TimeUnit.SECONDS);
+
+            assertThrows(IllegalStateException.class, () -> admission.call(() -> 2));
+            assertEquals(0, admission.getQueued());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void call_failedComputation_shouldReleasePermit() {
+        AdmissionControl admission = new AdmissionControl(1, 0, 0);
+
+        assertThrows(NumberFormatException.class, () -> admission.call(() -> Integer.parseInt("x")));
+
+        assertEquals(Integer.valueOf(2), admission.call(() -> 2));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
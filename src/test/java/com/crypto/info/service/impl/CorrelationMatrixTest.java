@@ -0,0 +1,116 @@
+package com.crypto.info.service.impl;
+
+import com.crypto.info.model.PriceRollup;
+import com.crypto.info.model.PriceSeries;
+import com.crypto.info.model.RollupResolution;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CorrelationMatrixTest {
+
+    private static final long START = Instant.parse("2022-01-01T00:00:00Z").toEpochMilli();
+    private static final long HOUR = 3_600_000L;
+
+    @Test
+    void grid_misalignedSeries_shouldStartWhenAllHavePricesAndCarryPricesForward() {
+        PriceRollup first = rollup(new long[]{0, 2, 3, 5}, new long[]{100, 200, 400, 800});
+        PriceRollup second = rollup(new long[]{1, 4}, new long[]{10, 20});
+
+        long[] grid = CorrelationMatrix.grid(List.of(first, second), Long.MIN_VALUE, START + 5 * HOUR);
+
+        assertArrayEquals(new long[]{START + HOUR, START + 2 * HOUR, START + 3 * HOUR, START + 4 * HOUR}, grid);
+        double[] returns = CorrelationMatrix.standardizedReturns(first, grid);
+        double[] expected = {Math.log(2), Math.log(2), 0};
+        double mean = (expected[0] + expected[1] + expected[2]) / 3;
+        double norm = Math.sqrt(2 * Math.pow(Math.log(2) - mean, 2) + mean * mean);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals((expected[i] - mean) / norm, returns[i], 1e-12);
+        }
+    }
+
+    @Test
+    void correlations_randomSeries_shouldMatchPearsonCorrelation() {
+        Random random = new Random(17);
+        int hours = 500;
+        List<PriceRollup> rollups = new ArrayList<>();
+        List<double[]> prices = new ArrayList<>();
+        for (int crypto = 0; crypto < 5; crypto++) {
+            long[] timestamps = new long[hours];
+            long[] closes = new long[hours];
+            double[] values = new double[hours];
+            for (int i = 0; i < hours; i++) {
+                timestamps[i] = i;
+                if (crypto == 4) {
+                    closes[i] = 1_000;
+                } else if (crypto == 1) {
+                    closes[i] = 2 * (long) prices.get(0)[i] + random.nextInt(50);
+                } else {
+                    closes[i] = 1_000 + random.nextInt(100);
+                }
+                values[i] = closes[i];
+            }
+            rollups.add(rollup(timestamps, closes));
+            prices.add(values);
+        }
+        long[] grid = CorrelationMatrix.grid(rollups, Long.MIN_VALUE, Long.MAX_VALUE);
+        List<double[]> returns = new ArrayList<>();
+        rollups.forEach(rollup -> returns.add(CorrelationMatrix.standardizedReturns(rollup, grid)));
+
+        List<List<Double>> matrix;
+        try (ParallelFanOut fanOut = new ParallelFanOut(3, "test")) {
+            matrix = CorrelationMatrix.correlations(returns, fanOut, System.nanoTime() + TimeUnit.SECONDS.toNanos(10));
+        }
+
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                assertEquals(pearson(prices.get(i), prices.get(j)), matrix.get(i).get(j), 1e-9);
+            }
+            assertNull(matrix.get(i).get(4));
+            assertNull(matrix.get(4).get(i));
+        }
+    }
+
+    private static double pearson(double[] first, double[] second) {
+        int n = first.length - 1;
+        double[] x = new double[n];
+        double[] y = new double[n];
+        double meanX = 0;
+        double meanY = 0;
+        for (int i = 0; i < n; i++) {
+            x[i] = Math.log(first[i + 1] / first[i]);
+            y[i] = Math.log(second[i + 1] / second[i]);
+            meanX += x[i] / n;
+            meanY += y[i] / n;
+        }
+        double covariance = 0;
+        double varianceX = 0;
+        double varianceY = 0;
+        for (int i = 0; i < n; i++) {
+            covariance += (x[i] - meanX) * (y[i] - meanY);
+            varianceX += (x[i] - meanX) * (x[i] - meanX);
+            varianceY += (y[i] - meanY) * (y[i] - meanY);
+        }
+        return covariance / Math.sqrt(varianceX * varianceY);
+    }
+
+    /**
+     * @param hours - hours since START of the points
+     */
+    private static PriceRollup rollup(long[] hours, long[] prices) {
+        PriceSeries.Builder series = PriceSeries.builder();
+        for (int i = 0; i < hours.length; i++) {
+            series.add(START + hours[i] * HOUR + 60_000L, prices[i]);
+        }
+        return PriceRollup.build(series.build(), RollupResolution.HOUR, ZoneOffset.UTC);
+    }
+}
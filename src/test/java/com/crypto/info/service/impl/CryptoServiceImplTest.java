@@ -1,9 +1,15 @@
 package com.crypto.info.service.impl;
 
 import com.crypto.info.CryptoInfoApplication;
+import com.crypto.info.model.CryptoBatchResult;
+import com.crypto.info.model.CryptoCorrelation;
 import com.crypto.info.model.CryptoData;
 import com.crypto.info.model.CryptoLimits;
 import com.crypto.info.model.CryptoNormalizedRange;
+import com.crypto.info.model.CryptoStatistics;
+import com.crypto.info.model.CryptoWindow;
+import com.crypto.info.model.CryptoWindowResult;
+import com.crypto.info.model.RollupResolution;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -68,6 +74,63 @@ class CryptoServiceImplTest {
         assertNull(cryptoService.getCryptoLimits("NotSupported", "0", "0", "11"));
     }
 
+    @Test
+    void getBatch_severalWindows_shouldReturnLimitsOfEachWindow() {
+        List<CryptoBatchResult> results = cryptoService.getBatch(Arrays.asList("BTC", "DOGE"),
+            Arrays.asList(new CryptoWindow("0", "0", "11"), new CryptoWindow()), true);
+
+        assertEquals(2, results.size());
+        assertEquals("BTC", results.get(0).getName());
+        assertEquals(2, results.get(0).getWindows().size());
+        for (CryptoWindowResult window : results.get(0).getWindows()) {
+            assertEquals(getBTCLimits(), window.getLimits());
+            assertEquals("0.01", window.getNormalizedRange());
+        }
+        assertEquals("DOGE", results.get(1).getName());
+        assertEquals(2, results.get(1).getWindows().size());
+        for (CryptoWindowResult window : results.get(1).getWindows()) {
+            assertEquals(getExpectedLimitsList().get(1), window.getLimits());
+        }
+    }
+
+    @Test
+    void getCryptoStatistics_wholeHistory_shouldReturnStatisticsOfAllPoints() {
+        CryptoStatistics statistics = cryptoService.getCryptoStatistics("DOGE", null, null, 2);
+
+        assertEquals(5, statistics.getCount());
+        assertEquals(Instant.ofEpochMilli(1641013200000L), statistics.getOldest());
+        assertEquals(Instant.ofEpochMilli(1664658000000L), statistics.getNewest());
+        assertEquals(0.17178, statistics.getMean(), 1e-9);
+        assertEquals(0.1727 / 0.1702 - 1, statistics.getChange(), 1e-9);
+        assertEquals(0.1723, statistics.getSma(), 1e-9);
+        assertThrows(IllegalArgumentException.class, () -> cryptoService.getCryptoStatistics("DOGE", null, null, 0));
+    }
+
+    @Test
+    void getCryptoStatistics_timeRange_shouldReturnStatisticsOfRangePoints() {
+        CryptoStatistics statistics = cryptoService.getCryptoStatistics("DOGE",
+            Instant.ofEpochMilli(1641074400000L), Instant.ofEpochMilli(1664658000000L), 2);
+
+        assertEquals(3, statistics.getCount());
+        assertEquals(Instant.ofEpochMilli(1641074400000L), statistics.getOldest());
+        assertEquals(Instant.ofEpochMilli(1641110400000L), statistics.getNewest());
+        assertEquals(0.172, statistics.getMean(), 1e-9);
+        assertEquals(0.1719 / 0.1722 - 1, statistics.getChange(), 1e-9);
+    }
+
+    @Test
+    void getCorrelation_twoCryptos_shouldReturnSymmetricMatrix() {
+        CryptoCorrelation correlation = cryptoService.getCorrelation(Arrays.asList("BTC", "DOGE"), RollupResolution.HOUR,
+            null, null);
+
+        assertEquals(Arrays.asList("BTC", "DOGE"), correlation.getCryptos());
+        assertEquals(2, correlation.getCorrelations().size());
+        assertEquals(1.0, correlation.getCorrelations().get(0).get(0));
+        assertEquals(1.0, correlation.getCorrelations().get(1).get(1));
+        assertTrue(Math.abs(correlation.getCorrelations().get(0).get(1)) <= 1.0);
+        assertEquals(correlation.getCorrelations().get(0).get(1), correlation.getCorrelations().get(1).get(0));
+    }
+
     private List<CryptoLimits> getExpectedLimitsList() {
         CryptoData DOGEOldest = new CryptoData(Instant.ofEpochMilli(Long.parseLong("1641013200000")), "DOGE", "0.1702");
         CryptoData DOGENewest = new CryptoData(Instant.ofEpochMilli(Long.parseLong("1664658000000")), "DOGE", "0.1727");
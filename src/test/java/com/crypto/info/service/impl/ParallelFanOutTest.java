@@ -0,0 +1,64 @@
+package com.crypto.info.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ParallelFanOutTest {
+
+    @Test
+    void map_manyItems_shouldKeepItemsOrder() {
+        List<Integer> items = IntStream.range(0, 1_000).boxed().collect(Collectors.toList());
+        try (ParallelFanOut fanOut = new ParallelFanOut(4, "test")) {
+            List<String> results = fanOut.map(items, String::valueOf, deadline(10_000));
+
+            assertEquals(items.stream().map(String::valueOf).collect(Collectors.toList()), results);
+        }
+    }
+
+    @Test
+    void map_singleThread_shouldComputeOnCallerThread() {
+        try (ParallelFanOut fanOut = new ParallelFanOut(1, "test")) {
+            List<String> threads = fanOut.map(List.of(1, 2, 3), i -> Thread.currentThread().getName(), deadline(10_000));
+
+            assertEquals(List.of(Thread.currentThread().getName(), Thread.currentThread().getName(),
+                Thread.currentThread().getName()), threads);
+        }
+    }
+
+    @Test
+    void map_deadlineExceeded_shouldThrowIllegalStateException() {
+        try (ParallelFanOut fanOut = new ParallelFanOut(2, "test")) {
+            assertThrows(IllegalStateException.class, () -> fanOut.map(List.of(1, 2), i -> {
+                sleep(500);
+                return i;
+            }, deadline(50)));
+        }
+    }
+
+    @Test
+    void map_functionFailed_shouldRethrowException() {
+        try (ParallelFanOut fanOut = new ParallelFanOut(2, "test")) {
+            assertThrows(NumberFormatException.class,
+                () -> fanOut.map(List.of("1", "x"), Integer::parseInt, deadline(10_000)));
+        }
+    }
+
+    private static long deadline(long millis) {
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
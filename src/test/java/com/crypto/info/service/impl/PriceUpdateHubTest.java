@@ -0,0 +1,108 @@
+package com.crypto.info.service.impl;
+
+import com.crypto.info.model.Crypto;
+import com.crypto.info.model.CryptoUpdate;
+import com.crypto.info.model.PriceSeries;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PriceUpdateHubTest {
+
+    private static final long START = 1641009600000L;
+
+    @Test
+    void dispatch_versionsPublishedInInterval_shouldSendOneUpdateWithNewTicks() throws Exception {
+        BlockingQueue<CryptoUpdate> btc = new LinkedBlockingQueue<>();
+        BlockingQueue<CryptoUpdate> eth = new LinkedBlockingQueue<>();
+        try (PriceUpdateHub hub = new PriceUpdateHub(PriceUpdateHubTest::update, 60_000, 100, 10, 2)) {
+            hub.published(crypto("BTC", 1, 10));
+            hub.dispatch();
+            hub.subscribe(List.of("BTC"), List.of(), btc::add);
+            hub.subscribe(List.of("ETH"), List.of(), eth::add);
+
+            hub.published(crypto("BTC", 2, 12));
+            hub.published(crypto("BTC", 3, 15));
+            hub.dispatch();
+
+            CryptoUpdate update = btc.poll(5, TimeUnit.SECONDS);
+            assertEquals(3, update.getVersion());
+            assertEquals(5, update.getTicks().size());
+            assertEquals(0, update.getSkippedTicks());
+            assertNull(btc.poll(100, TimeUnit.MILLISECONDS));
+            assertNull(eth.poll(100, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    @Test
+    void dispatch_slowSubscriber_shouldJoinPendingUpdatesAndKeepNewestTicks() throws Exception {
+        BlockingQueue<CryptoUpdate> received = new LinkedBlockingQueue<>();
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try (PriceUpdateHub hub = new PriceUpdateHub(PriceUpdateHubTest::update, 60_000, 4, 10, 2)) {
+            hub.published(crypto("BTC", 1, 1));
+            hub.dispatch();
+            hub.subscribe(Set.of(), List.of(crypto("BTC", 1, 1)), update -> {
+                sending.countDown();
+                awaitQuietly(release);
+                received.add(update);
+            });
+            sending.await(5, TimeUnit.SECONDS);
+            for (int version = 2; version <= 4; version++) {
+                hub.published(crypto("BTC", version, 1 + (version - 1) * 3));
+                hub.dispatch();
+            }
+            release.countDown();
+
+            assertEquals(1, received.poll(5, TimeUnit.SECONDS).getVersion());
+            CryptoUpdate joined = received.poll(5, TimeUnit.SECONDS);
+            assertEquals(4, joined.getVersion());
+            assertEquals(4, joined.getTicks().size());
+            assertEquals(5, joined.getSkippedTicks());
+            assertEquals(START + 9 * 60_000L, joined.getTicks().get(3).getDate().toEpochMilli());
+        }
+    }
+
+    @Test
+    void subscribe_tooManySubscriptions_shouldThrowIllegalStateException() {
+        try (PriceUpdateHub hub = new PriceUpdateHub(PriceUpdateHubTest::update, 60_000, 100, 1, 1)) {
+            hub.subscribe(List.of(), List.of(), update -> {
+            });
+
+            assertThrows(IllegalStateException.class, () -> hub.subscribe(List.of(), List.of(), update -> {
+            }));
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static CryptoUpdate update(Crypto crypto) {
+        return new CryptoUpdate(crypto.getName(), crypto.getVersion(), null, null);
+    }
+
+    private static Crypto crypto(String name, long version, int points) {
+        PriceSeries.Builder series = PriceSeries.builder();
+        for (int i = 0; i < points; i++) {
+            series.add(START + i * 60_000L, 100_000_000L + i);
+        }
+        Crypto crypto = new Crypto(name);
+        crypto.setSeries(series.build());
+        crypto.setVersion(version);
+        return crypto;
+    }
+}
@@ -0,0 +1,53 @@
+package com.crypto.info.util;
+
+import com.crypto.info.model.PriceSeries;
+import com.crypto.info.model.SeriesWindow;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DateUtilTest {
+
+    @Test
+    void filterDataBySpecificDay_shouldReturnPointsOfTheDay() {
+        PriceSeries series = PriceSeries.builder()
+            .add(epochMilli(LocalDateTime.of(2022, 1, 1, 23, 59)), 1L)
+            .add(epochMilli(LocalDateTime.of(2022, 1, 2, 0, 0)), 2L)
+            .add(epochMilli(LocalDateTime.of(2022, 1, 2, 23, 0)), 3L)
+            .add(epochMilli(LocalDateTime.of(2022, 1, 3, 0, 0)), 4L)
+            .build();
+
+        SeriesWindow window = DateUtil.filterDataBySpecificDay(series, "2", "1", "2022");
+
+        assertEquals(1, window.getFrom());
+        assertEquals(3, window.getTo());
+        assertTrue(DateUtil.filterDataBySpecificDay(series, "5", "1", "2022").isEmpty());
+    }
+
+    @Test
+    void filterDataByTimePeriod_shouldReturnPointsAfterLatestCutoff() {
+        LocalDate today = LocalDate.now();
+        PriceSeries series = PriceSeries.builder()
+            .add(epochMilli(today.minusYears(2).atStartOfDay()), 1L)
+            .add(epochMilli(today.minusDays(20).atStartOfDay()), 2L)
+            .add(epochMilli(today.minusDays(3).atTime(12, 0)), 3L)
+            .build();
+
+        assertEquals(3, DateUtil.filterDataByTimePeriod(series, "0", "0", "0").size());
+        assertEquals(2, DateUtil.filterDataByTimePeriod(series, "0", "0", "1").size());
+        assertEquals(1, DateUtil.filterDataByTimePeriod(series, "5", "1", "1").size());
+        assertThrows(RuntimeException.class, () -> DateUtil.filterDataByTimePeriod(series, "", "", ""));
+        assertNull(DateUtil.periodStart("0", "0", "0"));
+    }
+
+    private static long epochMilli(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,60 @@
+package com.crypto.info.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PriceUtilTest {
+
+    @Test
+    void normalizedRange_shouldMatchBigDecimalDivision() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            long min = 1 + (long) (random.nextDouble() * Math.pow(10, 1 + random.nextInt(15)));
+            long max = min + (long) (random.nextDouble() * Math.pow(10, 1 + random.nextInt(15)));
+
+            assertEquals(expected(min, max), PriceUtil.normalizedRange(min, max));
+        }
+    }
+
+    @Test
+    void normalizedRange_halfway_shouldRoundToEven() {
+        assertEquals(expected(800, 801), PriceUtil.normalizedRange(800, 801));
+        assertEquals(expected(800, 803), PriceUtil.normalizedRange(800, 803));
+        assertEquals(0, PriceUtil.normalizedRange(800, 801));
+        assertEquals(0, PriceUtil.normalizedRange(5, 5));
+        assertEquals(expected(1_000_000, Long.MAX_VALUE / 10), PriceUtil.normalizedRange(1_000_000, Long.MAX_VALUE / 10));
+    }
+
+    @Test
+    void normalizedRange_zeroMin_shouldThrowArithmeticException() {
+        assertThrows(ArithmeticException.class, () -> PriceUtil.normalizedRange(0, 10));
+    }
+
+    @Test
+    void formatRange_shouldKeepTwoDigits() {
+        assertEquals("0.30", PriceUtil.formatRange(30));
+        assertEquals("12.05", PriceUtil.formatRange(1205));
+        assertEquals(30, PriceUtil.parseRange("0.30"));
+        assertEquals(1205, PriceUtil.parseRange(PriceUtil.formatRange(1205)));
+    }
+
+    @Test
+    void formatPrice_shouldStripTrailingZerosAndRoundToPriceScale() {
+        assertEquals("42110", PriceUtil.formatPrice(PriceUtil.parsePrice("42110.00")));
+        assertEquals("46813.21", PriceUtil.formatPrice(PriceUtil.parsePrice("46813.2100")));
+        assertEquals("0", PriceUtil.formatPrice(PriceUtil.parsePrice("0.000000005")));
+        assertEquals("0.00000002", PriceUtil.formatPrice(PriceUtil.parsePrice("0.000000015")));
+    }
+
+    private static long expected(long min, long max) {
+        BigDecimal minPrice = PriceUtil.toBigDecimal(min);
+        return PriceUtil.toBigDecimal(max).subtract(minPrice)
+            .divide(minPrice, 2, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+}